@@ -1,14 +1,23 @@
 package com.bank;
 
+import com.bank.db.Database;
+import com.bank.db.DatabaseConfig;
 import com.bank.ui.Palette;
 import com.bank.ui.screens.MainFrame;
 import com.formdev.flatlaf.FlatDarkLaf;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.logging.Logger;
 
 public class App {
+    private static final Logger LOG = Logger.getLogger(App.class.getName());
+
     public static void main(String[] args) {
+        long start = System.nanoTime();
+        // SQLite opens, migrates and warms up on its own thread while the login screen paints
+        Database.openAsync(DatabaseConfig.fromSystemProperties());
+
         SwingUtilities.invokeLater(() -> {
             FlatDarkLaf.setup();
             UIManager.put("Component.arc", 16);
@@ -19,6 +28,7 @@ public class App {
             MainFrame frame = new MainFrame();
             frame.getContentPane().setBackground(Color.BLACK);
             frame.setVisible(true);
+            LOG.info("First frame shown in " + (System.nanoTime() - start) / 1_000_000 + " ms");
         });
     }
 }
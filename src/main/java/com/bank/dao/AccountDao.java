@@ -2,31 +2,65 @@ package com.bank.dao;
 
 import com.bank.db.Database;
 import com.bank.model.Account;
+import com.bank.model.LedgerEntry;
+import com.bank.model.Money;
+import com.bank.model.TransactionType;
 
-import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-public class AccountDao {
+public class AccountDao implements AccountRepository {
+    static final String FIND_BY_USER_ID = """
+            SELECT a.id, a.user_id, a.name, a.iban, a.balance_cents, u.username AS owner
+            FROM accounts a
+            JOIN users u ON a.user_id = u.id
+            WHERE a.user_id = ?
+            ORDER BY a.id
+            """;
+    static final String FIND_ALL_EXCEPT_USER = """
+            SELECT a.id, a.user_id, a.name, a.iban, a.balance_cents, u.username AS owner
+            FROM accounts a
+            JOIN users u ON a.user_id = u.id
+            WHERE a.user_id <> ?
+            ORDER BY a.user_id, a.id
+            """;
+    static final String FIND_BY_ID = """
+            SELECT a.id, a.user_id, a.name, a.iban, a.balance_cents, u.username AS owner
+            FROM accounts a
+            JOIN users u ON a.user_id = u.id
+            WHERE a.id = ?
+            """;
+    static final String GET_BALANCE = "SELECT balance_cents FROM accounts WHERE id = ?";
+    static final String UPDATE_BALANCE = "UPDATE accounts SET balance_cents = ? WHERE id = ?";
+    // the guard makes the check and the write one statement, so no read can go stale in between
+    static final String ADJUST_BALANCE =
+            "UPDATE accounts SET balance_cents = balance_cents + ? WHERE id = ? AND balance_cents + ? >= 0";
+    static final String ADJUST_BALANCE_RETURNING = ADJUST_BALANCE
+            + " RETURNING id, user_id, name, iban, balance_cents,"
+            + " (SELECT username FROM users WHERE users.id = accounts.user_id) AS owner";
 
+    static final RowMapper.Factory<Account> ACCOUNT = rs -> {
+        int id = rs.findColumn("id");
+        int userId = rs.findColumn("user_id");
+        int name = rs.findColumn("name");
+        int iban = rs.findColumn("iban");
+        int balance = rs.findColumn("balance_cents");
+        int owner = rs.findColumn("owner");
+        return r -> new Account(r.getInt(id), r.getInt(userId), r.getString(name), r.getString(iban),
+                Money.ofCents(r.getLong(balance)), r.getString(owner));
+    };
+
+    @Override
     public List<Account> findByUserId(int userId) {
         List<Account> accounts = new ArrayList<>();
-        String sql = """
-                SELECT a.id, a.user_id, a.name, a.iban, a.balance, u.username AS owner
-                FROM accounts a
-                JOIN users u ON a.user_id = u.id
-                WHERE a.user_id = ?
-                ORDER BY a.id
-                """;
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_BY_USER_ID)) {
             ps.setInt(1, userId);
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    accounts.add(map(rs));
-                }
+                RowMapper.readAll(rs, ACCOUNT, accounts);
             }
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch accounts", e);
@@ -34,22 +68,14 @@ public class AccountDao {
         return accounts;
     }
 
+    @Override
     public List<Account> findAllExceptUser(int userId) {
         List<Account> accounts = new ArrayList<>();
-        String sql = """
-                SELECT a.id, a.user_id, a.name, a.iban, a.balance, u.username AS owner
-                FROM accounts a
-                JOIN users u ON a.user_id = u.id
-                WHERE a.user_id <> ?
-                ORDER BY a.user_id, a.id
-                """;
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_ALL_EXCEPT_USER)) {
             ps.setInt(1, userId);
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    accounts.add(map(rs));
-                }
+                RowMapper.readAll(rs, ACCOUNT, accounts);
             }
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch other accounts", e);
@@ -57,19 +83,14 @@ public class AccountDao {
         return accounts;
     }
 
+    @Override
     public Optional<Account> findById(int id) {
-        String sql = """
-                SELECT a.id, a.user_id, a.name, a.iban, a.balance, u.username AS owner
-                FROM accounts a
-                JOIN users u ON a.user_id = u.id
-                WHERE a.id = ?
-                """;
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_BY_ID)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return Optional.of(map(rs));
+                    return Optional.of(ACCOUNT.bind(rs).map(rs));
                 }
             }
         } catch (Exception e) {
@@ -78,72 +99,141 @@ public class AccountDao {
         return Optional.empty();
     }
 
-    public void updateBalance(int accountId, BigDecimal newBalance) {
-        String sql = "UPDATE accounts SET balance = ? WHERE id = ?";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setBigDecimal(1, newBalance);
-            ps.setInt(2, accountId);
-            ps.executeUpdate();
+    @Override
+    public void updateBalance(int accountId, Money newBalance) {
+        try {
+            Database.writer().execute(conn -> {
+                Money current = getBalance(conn, accountId);
+                if (current == null || current.equals(newBalance)) {
+                    return null;
+                }
+                Money delta = newBalance.minus(current);
+                updateBalance(conn, accountId, newBalance);
+                TransactionDao.insertBatch(conn, List.of(delta.isPositive()
+                        ? LedgerEntry.deposit(accountId, delta) : LedgerEntry.withdraw(accountId, delta.negate())));
+                return null;
+            });
         } catch (Exception e) {
             throw new RuntimeException("Failed to update balance", e);
         }
     }
 
-    public void transfer(int fromId, int toId, BigDecimal amount) {
-        try (Connection conn = Database.getConnection()) {
-            conn.setAutoCommit(false);
-            try {
-                BigDecimal fromBalance = getBalance(conn, fromId);
-                BigDecimal toBalance = getBalance(conn, toId);
-                if (fromBalance == null || toBalance == null) {
-                    throw new IllegalArgumentException("Account not found");
-                }
-                if (fromBalance.compareTo(amount) < 0) {
-                    throw new IllegalArgumentException("Недостаточно средств");
+    @Override
+    public Account deposit(int accountId, Money amount) {
+        return post(TransactionType.DEPOSIT, accountId, amount);
+    }
+
+    @Override
+    public Account withdraw(int accountId, Money amount) {
+        return post(TransactionType.WITHDRAW, accountId, amount);
+    }
+
+    // guarded update and journal row in one writer command, so they share one commit
+    private Account post(TransactionType type, int accountId, Money amount) {
+        Money delta = type == TransactionType.DEPOSIT ? amount : amount.negate();
+        try {
+            return Database.writer().execute(conn -> {
+                Account account;
+                try (PreparedStatement ps = conn.prepareStatement(ADJUST_BALANCE_RETURNING)) {
+                    ps.setLong(1, delta.cents());
+                    ps.setInt(2, accountId);
+                    ps.setLong(3, delta.cents());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new IllegalArgumentException(getBalance(conn, accountId) == null
+                                    ? "Счет не найден" : "Недостаточно средств");
+                        }
+                        account = ACCOUNT.bind(rs).map(rs);
+                    }
                 }
-                updateBalance(conn, fromId, fromBalance.subtract(amount));
-                updateBalance(conn, toId, toBalance.add(amount));
-                conn.commit();
-            } catch (Exception e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
+                Integer from = type == TransactionType.DEPOSIT ? null : accountId;
+                Integer to = type == TransactionType.DEPOSIT ? accountId : null;
+                TransactionDao.insert(conn, type, from, to, amount);
+                return account;
+            });
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to post " + type.name().toLowerCase(), e);
+        }
+    }
+
+    @Override
+    public void transfer(int fromId, int toId, Money amount) {
+        try {
+            // debit, credit and journal row are one writer command: one commit, nothing in between
+            Database.writer().execute(conn -> {
+                transfer(conn, fromId, toId, amount);
+                return null;
+            });
+        } catch (IllegalArgumentException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to transfer", e);
         }
     }
 
-    private BigDecimal getBalance(Connection conn, int accountId) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement("SELECT balance FROM accounts WHERE id = ?")) {
+    // the writer's pooled connection keeps ADJUST_BALANCE and INSERT prepared between calls
+    void transfer(Connection conn, int fromId, int toId, Money amount) throws SQLException {
+        if (!adjust(conn, fromId, amount.negate())) {
+            throw new IllegalArgumentException(getBalance(conn, fromId) == null
+                    ? "Счет не найден" : "Недостаточно средств");
+        }
+        if (!adjust(conn, toId, amount)) {
+            throw new IllegalArgumentException("Счет не найден");
+        }
+        TransactionDao.insert(conn, TransactionType.TRANSFER, fromId, toId, amount);
+    }
+
+    static boolean adjust(Connection conn, int accountId, Money delta) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(ADJUST_BALANCE)) {
+            ps.setLong(1, delta.cents());
+            ps.setInt(2, accountId);
+            ps.setLong(3, delta.cents());
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    static Money getBalance(Connection conn, int accountId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(GET_BALANCE)) {
             ps.setInt(1, accountId);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getBigDecimal("balance");
+                    return Money.ofCents(rs.getLong("balance_cents"));
                 }
             }
         }
         return null;
     }
 
-    private void updateBalance(Connection conn, int accountId, BigDecimal value) throws SQLException {
-        try (PreparedStatement ps = conn.prepareStatement("UPDATE accounts SET balance = ? WHERE id = ?")) {
-            ps.setBigDecimal(1, value);
-            ps.setInt(2, accountId);
-            ps.executeUpdate();
+    // one executeBatch for all accounts; the writer command's savepoint undoes it if any row is refused
+    static void adjustBalances(Connection conn, Map<Integer, Money> deltas) throws SQLException {
+        int[] ids = new int[deltas.size()];
+        try (PreparedStatement ps = conn.prepareStatement(ADJUST_BALANCE)) {
+            int i = 0;
+            for (Map.Entry<Integer, Money> delta : deltas.entrySet()) {
+                ids[i++] = delta.getKey();
+                ps.setLong(1, delta.getValue().cents());
+                ps.setInt(2, delta.getKey());
+                ps.setLong(3, delta.getValue().cents());
+                ps.addBatch();
+            }
+            int[] counts = ps.executeBatch();
+            for (i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    throw new IllegalArgumentException(getBalance(conn, ids[i]) == null
+                            ? "Счет не найден" : "Недостаточно средств");
+                }
+            }
         }
     }
 
-    private Account map(ResultSet rs) throws Exception {
-        int id = rs.getInt("id");
-        int userId = rs.getInt("user_id");
-        String name = rs.getString("name");
-        String iban = rs.getString("iban");
-        BigDecimal balance = rs.getBigDecimal("balance");
-        String owner = rs.getString("owner");
-        return new Account(id, userId, name, iban, balance, owner);
+    private void updateBalance(Connection conn, int accountId, Money value) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(UPDATE_BALANCE)) {
+            ps.setLong(1, value.cents());
+            ps.setInt(2, accountId);
+            ps.executeUpdate();
+        }
     }
 }
 
@@ -0,0 +1,38 @@
+package com.bank.dao;
+
+import com.bank.model.Account;
+import com.bank.model.Money;
+
+import java.util.List;
+import java.util.Optional;
+
+/** Account storage; {@link AccountDao} is the SQLite engine, {@link InMemoryStore} the in-memory one. */
+public interface AccountRepository {
+
+    List<Account> findByUserId(int userId);
+
+    List<Account> findAllExceptUser(int userId);
+
+    Optional<Account> findById(int id);
+
+    /**
+     * Sets the balance and journals the difference as a deposit or withdrawal in one commit, so
+     * the ledger still adds up to every balance. Does nothing for an unknown account.
+     */
+    void updateBalance(int accountId, Money newBalance);
+
+    /** Credits the account and journals a deposit in one commit; returns the account as updated. */
+    Account deposit(int accountId, Money amount);
+
+    /**
+     * Debits the account and journals a withdrawal in one commit. The funds check is part of the
+     * update, so concurrent withdrawals cannot overdraw the account.
+     */
+    Account withdraw(int accountId, Money amount);
+
+    /**
+     * Moves {@code amount} and journals the transfer in one commit; fails without changes if the
+     * source cannot cover it.
+     */
+    void transfer(int fromId, int toId, Money amount);
+}
@@ -0,0 +1,88 @@
+package com.bank.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link Stream} over an open result set. Rows are mapped one at a time as the stream is
+ * consumed; the result set, statement and connection are closed when the last row has been
+ * read, when the stream is closed, or when reading fails, whichever comes first.
+ */
+final class Cursor<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+
+    private final Connection conn;
+    private final PreparedStatement ps;
+    private final ResultSet rs;
+    private final RowMapper<T> mapper;
+    private boolean closed;
+
+    private Cursor(Connection conn, PreparedStatement ps, ResultSet rs, RowMapper<T> mapper) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.conn = conn;
+        this.ps = ps;
+        this.rs = rs;
+        this.mapper = mapper;
+    }
+
+    /** Takes ownership of {@code conn} and {@code ps}: both are closed with the stream. */
+    static <T> Stream<T> stream(Connection conn, PreparedStatement ps, int fetchSize, RowMapper.Factory<T> mapping) {
+        ResultSet rs = null;
+        try {
+            ps.setFetchSize(fetchSize);
+            rs = ps.executeQuery();
+            Cursor<T> cursor = new Cursor<>(conn, ps, rs, mapping.bind(rs));
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException e) {
+            closeQuietly(rs, ps, conn);
+            throw new RuntimeException("Failed to open cursor", e);
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (closed) {
+            return false;
+        }
+        T row;
+        try {
+            if (!rs.next()) {
+                close();
+                return false;
+            }
+            row = mapper.map(rs);
+        } catch (Exception e) {
+            close();
+            throw new RuntimeException("Failed to read cursor", e);
+        }
+        action.accept(row);
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeQuietly(rs, ps, conn);
+    }
+
+    private static void closeQuietly(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            try {
+                if (resource != null) {
+                    resource.close();
+                }
+            } catch (Exception ignored) {
+                // the connection goes back to the pool either way
+            }
+        }
+    }
+}
@@ -0,0 +1,606 @@
+package com.bank.dao;
+
+import com.bank.model.Account;
+import com.bank.model.DateRange;
+import com.bank.model.LedgerEntry;
+import com.bank.model.Money;
+import com.bank.model.Role;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+import com.bank.model.User;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * In-memory storage engine behind the repository interfaces. Rows live in {@link IntMap}s keyed
+ * by id (the journal is a list, its ids are positions); one read-write lock makes every
+ * repository call atomic, including transfers. Returned models are copies.
+ *
+ * <p>Every ledger mutation is expressed as a {@link LedgerRecord}; with a {@link LedgerLog}
+ * attached (see {@link JournaledStore}) records are persisted before they are applied, and
+ * replaying them on a store with the same users and accounts rebuilds balances and journal.
+ */
+public class InMemoryStore {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IntMap<User> users = new IntMap<>();
+    private final Map<String, User> usersByName = new HashMap<>();
+    private final IntMap<AccountRow> accounts = new IntMap<>();
+    private final IntMap<List<AccountRow>> accountsByUser = new IntMap<>();
+    private final List<TransactionRow> journal = new ArrayList<>();
+    private int nextUserId = 1;
+    private int nextAccountId = 1;
+    private LedgerLog log = LedgerLog.NONE;
+
+    private final AccountRepository accountRepository = new Accounts();
+    private final TransactionRepository transactionRepository = new Transactions();
+    private final UserRepository userRepository = new Users();
+
+    /** Same users and accounts as a freshly seeded SQLite database. */
+    public static InMemoryStore seeded() {
+        InMemoryStore store = new InMemoryStore();
+        store.addUser("admin", "admin", Role.ADMIN);
+        int user = store.addUser("user", "pass", Role.USER);
+        store.addAccount(user, "Daily Card", "BKUSER0MEM0000001", Money.of("1250.00"));
+        store.addAccount(user, "Savings Vault", "BKUSER1MEM0000002", Money.of("3200.00"));
+        int alice = store.addUser("alice", "pass", Role.USER);
+        store.addAccount(alice, "Spending", "BKALIC0MEM0000003", Money.of("980.00"));
+        store.addAccount(alice, "Travel", "BKALIC1MEM0000004", Money.of("2100.00"));
+        int bob = store.addUser("bob", "pass", Role.USER);
+        store.addAccount(bob, "Checking", "BKBOB0MEM00000005", Money.of("1500.00"));
+        store.addAccount(bob, "Invest", "BKBOB1MEM00000006", Money.of("8200.00"));
+        return store;
+    }
+
+    /** Copies users and accounts (ids and current balances) from another engine, e.g. SQLite. */
+    public static InMemoryStore copyOf(UserRepository users, AccountRepository accounts) {
+        InMemoryStore store = new InMemoryStore();
+        for (User user : users.findAll()) {
+            store.putUser(user);
+            for (Account account : accounts.findByUserId(user.getId())) {
+                store.putAccount(account.getId(), user.getId(), account.getName(), account.getIban(), account.getBalance());
+            }
+        }
+        return store;
+    }
+
+    public int addUser(String username, String password, Role role) {
+        lock.writeLock().lock();
+        try {
+            checkNotJournaled();
+            return putUser(new User(nextUserId, username, password, role));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int addAccount(int userId, String name, String iban, Money balance) {
+        lock.writeLock().lock();
+        try {
+            checkNotJournaled();
+            return putAccount(nextAccountId, userId, name, iban, balance);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // the journal holds ledger records only: users and accounts must be the same at every open
+    private void checkNotJournaled() {
+        if (log != LedgerLog.NONE) {
+            throw new IllegalStateException("Users and accounts cannot be added while the ledger is journaled");
+        }
+    }
+
+    /**
+     * CRC32 over users (ids, usernames) and accounts (ids, owners, names, IBANs, balances);
+     * {@link JournaledStore} compares it with the one stored next to the journal before replaying.
+     */
+    long directoryChecksum() {
+        lock.readLock().lock();
+        try {
+            CRC32 crc = new CRC32();
+            List<User> userRows = new ArrayList<>(users.size());
+            users.forEachValue(userRows::add);
+            userRows.sort(Comparator.comparingInt(User::getId));
+            for (User user : userRows) {
+                crc.update((user.getId() + "\u0000" + user.getUsername() + "\u0000").getBytes(StandardCharsets.UTF_8));
+            }
+            List<AccountRow> accountRows = new ArrayList<>(accounts.size());
+            accounts.forEachValue(accountRows::add);
+            accountRows.sort(Comparator.comparingInt(row -> row.id));
+            for (AccountRow row : accountRows) {
+                crc.update((row.id + "\u0000" + row.userId + "\u0000" + row.name + "\u0000" + row.iban
+                        + "\u0000" + row.balanceCents + "\u0000").getBytes(StandardCharsets.UTF_8));
+            }
+            return crc.getValue();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int putUser(User user) {
+        if (usersByName.containsKey(user.getUsername())) {
+            throw new IllegalArgumentException("Пользователь уже существует");
+        }
+        users.put(user.getId(), user);
+        usersByName.put(user.getUsername(), user);
+        nextUserId = Math.max(nextUserId, user.getId() + 1);
+        return user.getId();
+    }
+
+    private int putAccount(int id, int userId, String name, String iban, Money balance) {
+        if (users.get(userId) == null) {
+            throw new IllegalArgumentException("Пользователь не найден");
+        }
+        AccountRow row = new AccountRow(id, userId, name, iban, balance.cents());
+        accounts.put(row.id, row);
+        List<AccountRow> owned = accountsByUser.get(userId);
+        if (owned == null) {
+            owned = new ArrayList<>();
+            accountsByUser.put(userId, owned);
+        }
+        owned.add(row);
+        nextAccountId = Math.max(nextAccountId, id + 1);
+        return row.id;
+    }
+
+    /** Applies a record read back from a {@link LedgerLog} without logging it again. */
+    void replay(LedgerRecord record) {
+        lock.writeLock().lock();
+        try {
+            apply(record);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void attach(LedgerLog log) {
+        lock.writeLock().lock();
+        try {
+            this.log = log;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // caller holds the write lock: log first, so nothing is visible that would not survive a restart
+    private void commit(LedgerRecord.Kind kind, int from, int to, long amountCents) {
+        apply(log.append(record(kind, from, to, amountCents)));
+    }
+
+    // one group in the log: a crash replays all of the records or none of them
+    private void commitAll(List<LedgerRecord> records) {
+        log.appendAll(records).forEach(this::apply);
+    }
+
+    private static LedgerRecord record(LedgerRecord.Kind kind, int from, int to, long amountCents) {
+        return new LedgerRecord(0, kind, from, to, amountCents, System.currentTimeMillis());
+    }
+
+    // every record carries its own balance effect, so replay needs nothing but the record
+    private void apply(LedgerRecord record) {
+        switch (record.kind()) {
+            case SET_BALANCE -> {
+                AccountRow row = accounts.get(record.to());
+                if (row != null) {
+                    row.balanceCents = record.amountCents();
+                }
+            }
+            case DEPOSIT, WITHDRAW, TRANSFER -> {
+                TransactionRow row = new TransactionRow(journal.size() + 1,
+                        TransactionType.valueOf(record.kind().name()),
+                        record.from() == 0 ? null : record.from(),
+                        record.to() == 0 ? null : record.to(),
+                        record.amountCents(),
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestampMillis() / 1000 * 1000),
+                                ZoneOffset.UTC));
+                journal.add(row);
+                move(row.fromId, row.toId, row.amountCents);
+            }
+            case REVERSE -> {
+                if (record.from() >= 1 && record.from() <= journal.size()) {
+                    TransactionRow row = journal.get(record.from() - 1);
+                    if (!row.reversed) {
+                        row.reversed = true;
+                        move(row.toId, row.fromId, row.amountCents);
+                    }
+                }
+            }
+        }
+    }
+
+    private void move(Integer fromId, Integer toId, long cents) {
+        AccountRow from = fromId == null ? null : accounts.get(fromId);
+        AccountRow to = toId == null ? null : accounts.get(toId);
+        if (from != null) {
+            from.balanceCents -= cents;
+        }
+        if (to != null) {
+            to.balanceCents += cents;
+        }
+    }
+
+    public AccountRepository accounts() {
+        return accountRepository;
+    }
+
+    public TransactionRepository transactions() {
+        return transactionRepository;
+    }
+
+    public UserRepository users() {
+        return userRepository;
+    }
+
+    private Account toAccount(AccountRow row) {
+        return new Account(row.id, row.userId, row.name, row.iban, Money.ofCents(row.balanceCents),
+                users.get(row.userId).getUsername());
+    }
+
+    private String label(Integer accountId) {
+        AccountRow row = accountId == null ? null : accounts.get(accountId);
+        return row == null ? "" : row.name + " (" + users.get(row.userId).getUsername() + ")";
+    }
+
+    private Transaction toTransaction(TransactionRow row) {
+        return new Transaction(row.id, row.type, row.fromId, row.toId, Money.ofCents(row.amountCents),
+                row.reversed, row.createdAt, label(row.fromId), label(row.toId));
+    }
+
+    private static final class AccountRow {
+        final int id;
+        final int userId;
+        final String name;
+        final String iban;
+        long balanceCents;
+
+        AccountRow(int id, int userId, String name, String iban, long balanceCents) {
+            this.id = id;
+            this.userId = userId;
+            this.name = name;
+            this.iban = iban;
+            this.balanceCents = balanceCents;
+        }
+    }
+
+    private static final class TransactionRow {
+        final int id;
+        final TransactionType type;
+        final Integer fromId;
+        final Integer toId;
+        final long amountCents;
+        final LocalDateTime createdAt;
+        boolean reversed;
+
+        TransactionRow(int id, TransactionType type, Integer fromId, Integer toId, long amountCents,
+                       LocalDateTime createdAt) {
+            this.id = id;
+            this.type = type;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.amountCents = amountCents;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private final class Accounts implements AccountRepository {
+
+        @Override
+        public List<Account> findByUserId(int userId) {
+            lock.readLock().lock();
+            try {
+                List<AccountRow> owned = accountsByUser.get(userId);
+                List<Account> result = new ArrayList<>();
+                if (owned != null) {
+                    owned.forEach(row -> result.add(toAccount(row)));
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public List<Account> findAllExceptUser(int userId) {
+            lock.readLock().lock();
+            try {
+                List<Account> result = new ArrayList<>();
+                accounts.forEachValue(row -> {
+                    if (row.userId != userId) {
+                        result.add(toAccount(row));
+                    }
+                });
+                result.sort(Comparator.comparingInt(Account::getUserId).thenComparingInt(Account::getId));
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Optional<Account> findById(int id) {
+            lock.readLock().lock();
+            try {
+                AccountRow row = accounts.get(id);
+                return row == null ? Optional.empty() : Optional.of(toAccount(row));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void updateBalance(int accountId, Money newBalance) {
+            lock.writeLock().lock();
+            try {
+                AccountRow row = accounts.get(accountId);
+                if (row != null && row.balanceCents != newBalance.cents()) {
+                    long delta = newBalance.cents() - row.balanceCents;
+                    commit(delta > 0 ? LedgerRecord.Kind.DEPOSIT : LedgerRecord.Kind.WITHDRAW,
+                            delta > 0 ? 0 : accountId, delta > 0 ? accountId : 0, Math.abs(delta));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Account deposit(int accountId, Money amount) {
+            return post(LedgerRecord.Kind.DEPOSIT, accountId, amount.cents());
+        }
+
+        @Override
+        public Account withdraw(int accountId, Money amount) {
+            return post(LedgerRecord.Kind.WITHDRAW, accountId, amount.cents());
+        }
+
+        private Account post(LedgerRecord.Kind kind, int accountId, long cents) {
+            lock.writeLock().lock();
+            try {
+                AccountRow row = accounts.get(accountId);
+                if (row == null) {
+                    throw new IllegalArgumentException("Счет не найден");
+                }
+                long delta = kind == LedgerRecord.Kind.DEPOSIT ? cents : -cents;
+                if (row.balanceCents + delta < 0) {
+                    throw new IllegalArgumentException("Недостаточно средств");
+                }
+                commit(kind, kind == LedgerRecord.Kind.DEPOSIT ? 0 : accountId,
+                        kind == LedgerRecord.Kind.DEPOSIT ? accountId : 0, cents);
+                return toAccount(row);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void transfer(int fromId, int toId, Money amount) {
+            lock.writeLock().lock();
+            try {
+                AccountRow from = accounts.get(fromId);
+                AccountRow to = accounts.get(toId);
+                if (from == null || to == null) {
+                    throw new IllegalArgumentException("Счет не найден");
+                }
+                if (from.balanceCents < amount.cents()) {
+                    throw new IllegalArgumentException("Недостаточно средств");
+                }
+                commit(LedgerRecord.Kind.TRANSFER, fromId, toId, amount.cents());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private final class Transactions implements TransactionRepository {
+
+        @Override
+        public int[] postBatch(List<LedgerEntry> entries) {
+            lock.writeLock().lock();
+            try {
+                Map<Integer, Money> deltas = LedgerEntry.balanceChanges(entries);
+                for (Map.Entry<Integer, Money> delta : deltas.entrySet()) {
+                    AccountRow row = accounts.get(delta.getKey());
+                    if (row == null) {
+                        throw new IllegalArgumentException("Счет не найден");
+                    }
+                    if (row.balanceCents + delta.getValue().cents() < 0) {
+                        throw new IllegalArgumentException("Недостаточно средств");
+                    }
+                }
+                // validated up front: the whole batch applies or none of it does
+                List<LedgerRecord> records = new ArrayList<>(entries.size());
+                for (LedgerEntry entry : entries) {
+                    records.add(record(LedgerRecord.Kind.valueOf(entry.type().name()),
+                            entry.fromAccountId() == null ? 0 : entry.fromAccountId(),
+                            entry.toAccountId() == null ? 0 : entry.toAccountId(),
+                            entry.amount().cents()));
+                }
+                int first = journal.size() + 1;
+                commitAll(records);
+                int[] ids = new int[entries.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = first + i;
+                }
+                return ids;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public List<Transaction> findAll() {
+            lock.readLock().lock();
+            try {
+                List<Transaction> result = new ArrayList<>(journal.size());
+                for (int i = journal.size() - 1; i >= 0; i--) {
+                    result.add(toTransaction(journal.get(i)));
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Stream<Transaction> streamAll(int fetchSize) {
+            // already on the heap; a snapshot keeps the lock short
+            return findAll().stream();
+        }
+
+        @Override
+        public List<Transaction> findPage(Integer beforeId, int limit) {
+            lock.readLock().lock();
+            try {
+                // ids are positions in the journal
+                int from = beforeId == null ? journal.size() : Math.min(beforeId - 1, journal.size());
+                List<Transaction> result = new ArrayList<>(Math.max(0, Math.min(limit, from)));
+                for (int i = from - 1; i >= 0 && result.size() < limit; i--) {
+                    result.add(toTransaction(journal.get(i)));
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public List<Transaction> findByAccount(int accountId, DateRange range, int limit) {
+            lock.readLock().lock();
+            try {
+                List<Transaction> result = new ArrayList<>();
+                for (int i = journal.size() - 1; i >= 0 && result.size() < limit; i--) {
+                    TransactionRow row = journal.get(i);
+                    boolean touches = Objects.equals(row.fromId, accountId) || Objects.equals(row.toId, accountId);
+                    if (touches && range.contains(row.createdAt)) {
+                        result.add(toTransaction(row));
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public List<Transaction> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+            lock.readLock().lock();
+            try {
+                List<Transaction> result = new ArrayList<>();
+                for (int i = journal.size() - 1; i >= 0; i--) {
+                    TransactionRow row = journal.get(i);
+                    if (!row.createdAt.isBefore(from) && row.createdAt.isBefore(to)) {
+                        result.add(toTransaction(row));
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Optional<Transaction> findById(int id) {
+            lock.readLock().lock();
+            try {
+                if (id < 1 || id > journal.size()) {
+                    return Optional.empty();
+                }
+                return Optional.of(toTransaction(journal.get(id - 1)));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void reverse(int id) {
+            reverseAll(List.of(id));
+        }
+
+        @Override
+        public void reverseAll(List<Integer> ids) {
+            lock.writeLock().lock();
+            try {
+                // dry run on the resulting balances first: the whole batch applies or none of it does
+                Map<Integer, Long> balances = new LinkedHashMap<>();
+                Set<Integer> seen = new HashSet<>();
+                for (int id : ids) {
+                    if (id < 1 || id > journal.size()) {
+                        throw new IllegalArgumentException("Транзакция не найдена");
+                    }
+                    TransactionRow row = journal.get(id - 1);
+                    if (row.reversed || !seen.add(id)) {
+                        throw new IllegalStateException("Уже откатано");
+                    }
+                    if (row.type != TransactionType.WITHDRAW) {
+                        undo(balances, row.toId, -row.amountCents, "Счет получателя не найден");
+                    }
+                    if (row.type != TransactionType.DEPOSIT) {
+                        undo(balances, row.fromId, row.amountCents, "Счет отправителя не найден");
+                    }
+                }
+                List<LedgerRecord> records = new ArrayList<>(ids.size());
+                for (int id : ids) {
+                    records.add(record(LedgerRecord.Kind.REVERSE, id, 0, 0));
+                }
+                commitAll(records);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void undo(Map<Integer, Long> balances, Integer accountId, long delta, String missing) {
+            AccountRow account = accountId == null ? null : accounts.get(accountId);
+            if (account == null) {
+                throw new IllegalArgumentException(missing);
+            }
+            long balance = balances.getOrDefault(accountId, account.balanceCents) + delta;
+            if (balance < 0) {
+                throw new IllegalArgumentException("Недостаточно средств для отката");
+            }
+            balances.put(accountId, balance);
+        }
+    }
+
+    private final class Users implements UserRepository {
+
+        @Override
+        public Optional<User> findByCredentials(String username, String password) {
+            lock.readLock().lock();
+            try {
+                User user = usersByName.get(username);
+                return user != null && user.getPassword().equals(password) ? Optional.of(user) : Optional.empty();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public List<User> findAll() {
+            lock.readLock().lock();
+            try {
+                List<User> result = new ArrayList<>(users.size());
+                users.forEachValue(result::add);
+                result.sort(Comparator.comparing(User::getUsername));
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
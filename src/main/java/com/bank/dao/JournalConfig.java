@@ -0,0 +1,42 @@
+package com.bank.dao;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Layout and durability of a {@link MappedLedgerJournal}. A segment holds {@code segmentRecords}
+ * fixed-width records; when it is full the journal forces it and rolls to the next file.
+ */
+public record JournalConfig(Path dir, int segmentRecords, SyncPolicy sync, Duration syncInterval) {
+
+    public enum SyncPolicy {
+        /** msync after every record: survives power loss, slowest. */
+        EVERY_RECORD,
+        /** msync of the dirty range every {@code syncInterval} from a background thread. */
+        PERIODIC,
+        /** Leave write-back to the OS; a process crash loses nothing, power loss may. */
+        OS
+    }
+
+    public JournalConfig {
+        if (segmentRecords < 1) {
+            throw new IllegalArgumentException("segmentRecords must be positive");
+        }
+        if (sync == SyncPolicy.PERIODIC && (syncInterval == null || syncInterval.isZero() || syncInterval.isNegative())) {
+            throw new IllegalArgumentException("PERIODIC sync needs a positive interval");
+        }
+    }
+
+    /** 1M records (40 MB) per segment, synced every 10 ms. */
+    public static JournalConfig of(Path dir) {
+        return new JournalConfig(dir, 1 << 20, SyncPolicy.PERIODIC, Duration.ofMillis(10));
+    }
+
+    public JournalConfig withSync(SyncPolicy sync) {
+        return new JournalConfig(dir, segmentRecords, sync, syncInterval);
+    }
+
+    public JournalConfig withSegmentRecords(int segmentRecords) {
+        return new JournalConfig(dir, segmentRecords, sync, syncInterval);
+    }
+}
@@ -0,0 +1,81 @@
+package com.bank.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * {@link InMemoryStore} whose ledger mutations are persisted to a {@link MappedLedgerJournal}.
+ * Balances are served from memory; on open the journal is replayed over {@code directory}, which
+ * must hold the same users, accounts and opening balances every time the journal is opened.
+ * Only ledger records are journaled, so the directory's checksum is kept in {@value #DIRECTORY_FILE}
+ * next to the segments and {@link #open} refuses a directory that does not match it; users and
+ * accounts cannot be added while the store is open.
+ */
+public final class JournaledStore implements AutoCloseable {
+    static final String DIRECTORY_FILE = "directory.crc";
+
+    private final InMemoryStore store;
+    private final MappedLedgerJournal journal;
+
+    private JournaledStore(InMemoryStore store, MappedLedgerJournal journal) {
+        this.store = store;
+        this.journal = journal;
+    }
+
+    public static JournaledStore open(JournalConfig config, InMemoryStore directory) {
+        checkDirectory(config.dir(), directory.directoryChecksum());
+        MappedLedgerJournal journal = MappedLedgerJournal.open(config, directory::replay);
+        directory.attach(journal);
+        return new JournaledStore(directory, journal);
+    }
+
+    private static void checkDirectory(Path dir, long checksum) {
+        Path file = dir.resolve(DIRECTORY_FILE);
+        try {
+            if (Files.exists(file)) {
+                long stored = Long.parseUnsignedLong(Files.readString(file, StandardCharsets.US_ASCII).trim(), 16);
+                if (stored != checksum) {
+                    throw new IllegalStateException("Ledger journal in " + dir
+                            + " was written over different users or accounts; open it with the same directory");
+                }
+                return;
+            }
+            Files.createDirectories(dir);
+            Path tmp = dir.resolve(DIRECTORY_FILE + ".tmp");
+            Files.writeString(tmp, Long.toHexString(checksum), StandardCharsets.US_ASCII);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to check ledger journal directory " + dir, e);
+        }
+    }
+
+    public InMemoryStore store() {
+        return store;
+    }
+
+    public AccountRepository accounts() {
+        return store.accounts();
+    }
+
+    public TransactionRepository transactions() {
+        return store.transactions();
+    }
+
+    public UserRepository users() {
+        return store.users();
+    }
+
+    public MappedLedgerJournal journal() {
+        return journal;
+    }
+
+    @Override
+    public void close() {
+        store.attach(LedgerLog.NONE);
+        journal.close();
+    }
+}
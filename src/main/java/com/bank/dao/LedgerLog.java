@@ -0,0 +1,22 @@
+package com.bank.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Durable sink for {@link InMemoryStore} mutations; called under the store's write lock. */
+interface LedgerLog {
+    LedgerLog NONE = record -> record;
+
+    /** Persists the record and returns it with its assigned sequence. */
+    LedgerRecord append(LedgerRecord record);
+
+    /**
+     * Persists {@code records} as one group: after a crash either all of them are replayed or none
+     * is. Durable logs must override this; the default only suits {@link #NONE}.
+     */
+    default List<LedgerRecord> appendAll(List<LedgerRecord> records) {
+        List<LedgerRecord> appended = new ArrayList<>(records.size());
+        records.forEach(record -> appended.add(append(record)));
+        return appended;
+    }
+}
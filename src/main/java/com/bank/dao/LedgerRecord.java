@@ -0,0 +1,25 @@
+package com.bank.dao;
+
+/**
+ * One mutation of an {@link InMemoryStore}, in the order it was applied. Each record carries its
+ * whole effect: {@code DEPOSIT}, {@code WITHDRAW} and {@code TRANSFER} add a journal entry and
+ * move its amount; {@code REVERSE} marks journal entry {@code from} as reversed and undoes its
+ * amount; {@code SET_BALANCE} sets account {@code to} to {@code amountCents} (no longer written,
+ * still replayed from older journals). Unused account fields are {@code 0}.
+ */
+public record LedgerRecord(long sequence, Kind kind, int from, int to, long amountCents, long timestampMillis) {
+
+    public enum Kind {
+        SET_BALANCE, DEPOSIT, WITHDRAW, TRANSFER, REVERSE;
+
+        private static final Kind[] VALUES = values();
+
+        static Kind of(int ordinal) {
+            return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
+        }
+    }
+
+    public LedgerRecord withSequence(long sequence) {
+        return new LedgerRecord(sequence, kind, from, to, amountCents, timestampMillis);
+    }
+}
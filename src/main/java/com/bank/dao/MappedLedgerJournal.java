@@ -0,0 +1,302 @@
+package com.bank.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only ledger journal in memory-mapped segment files ({@code ledger-<first sequence>.seg}).
+ * Records are 40 bytes: sequence, amount, timestamp, from, to, kind and a CRC32 of the rest.
+ * An append is a copy into the mapping; durability is decided by {@link JournalConfig.SyncPolicy}.
+ * On open the segments are scanned and appending resumes after the last valid record, so a torn
+ * write at the tail is dropped rather than replayed. Every record of an {@link #appendAll} group
+ * but the last carries a continuation bit in its kind; a group cut short by a crash is dropped
+ * whole. Groups never span segments.
+ */
+public class MappedLedgerJournal implements LedgerLog, AutoCloseable {
+    static final int RECORD_SIZE = 40;
+    private static final int HEADER_SIZE = 16;
+    private static final int MAGIC = 0x424B4C4A; // "BKLJ"
+    private static final int VERSION = 2;
+    private static final int GROUPED = 0x100;
+    private static final int CHECKSUMMED = RECORD_SIZE - 4;
+
+    private final JournalConfig config;
+    private final long segmentSize;
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch);
+    private final CRC32 crc = new CRC32();
+    private final ScheduledExecutorService syncer;
+
+    private MappedByteBuffer segment;
+    private int position;
+    private int syncedPosition;
+    private long nextSequence = 1;
+    private int segments;
+    private boolean closed;
+
+    private MappedLedgerJournal(JournalConfig config) {
+        this.config = config;
+        this.segmentSize = HEADER_SIZE + (long) config.segmentRecords() * RECORD_SIZE;
+        if (segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment larger than 2 GB");
+        }
+        if (config.sync() == JournalConfig.SyncPolicy.PERIODIC) {
+            syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "ledger-journal-sync");
+                t.setDaemon(true);
+                return t;
+            });
+        } else {
+            syncer = null;
+        }
+    }
+
+    /** Opens (or creates) the journal in {@code config.dir()}, passing every valid record to {@code replay}. */
+    public static MappedLedgerJournal open(JournalConfig config, Consumer<LedgerRecord> replay) {
+        MappedLedgerJournal journal = new MappedLedgerJournal(config);
+        try {
+            Files.createDirectories(config.dir());
+            journal.recover(replay);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open ledger journal " + config.dir(), e);
+        }
+        if (journal.syncer != null) {
+            long nanos = config.syncInterval().toNanos();
+            journal.syncer.scheduleWithFixedDelay(journal::sync, nanos, nanos, TimeUnit.NANOSECONDS);
+        }
+        return journal;
+    }
+
+    @Override
+    public synchronized LedgerRecord append(LedgerRecord record) {
+        ensureOpen();
+        if (position + RECORD_SIZE > segmentSize) {
+            roll();
+        }
+        LedgerRecord appended = write(record, false);
+        if (config.sync() == JournalConfig.SyncPolicy.EVERY_RECORD) {
+            segment.force(position - RECORD_SIZE, RECORD_SIZE);
+            syncedPosition = position;
+        }
+        return appended;
+    }
+
+    @Override
+    public synchronized List<LedgerRecord> appendAll(List<LedgerRecord> records) {
+        ensureOpen();
+        if (records.size() > config.segmentRecords()) {
+            throw new IllegalArgumentException("Group larger than a journal segment");
+        }
+        if (position + (long) records.size() * RECORD_SIZE > segmentSize) {
+            roll();
+        }
+        int start = position;
+        List<LedgerRecord> appended = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            appended.add(write(records.get(i), i < records.size() - 1));
+        }
+        if (config.sync() == JournalConfig.SyncPolicy.EVERY_RECORD && position > start) {
+            segment.force(start, position - start);
+            syncedPosition = position;
+        }
+        return appended;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Ledger journal is closed");
+        }
+    }
+
+    // caller holds the lock and has made room in the segment
+    private LedgerRecord write(LedgerRecord record, boolean grouped) {
+        long sequence = nextSequence++;
+        scratchBuffer.clear();
+        scratchBuffer.putLong(sequence)
+                .putLong(record.amountCents())
+                .putLong(record.timestampMillis())
+                .putInt(record.from())
+                .putInt(record.to())
+                .putInt(record.kind().ordinal() | (grouped ? GROUPED : 0));
+        crc.reset();
+        crc.update(scratch, 0, CHECKSUMMED);
+        scratchBuffer.putInt((int) crc.getValue());
+        segment.put(position, scratch);
+        position += RECORD_SIZE;
+        return record.withSequence(sequence);
+    }
+
+    /** Forces records appended since the last sync; called by the PERIODIC syncer. */
+    public void sync() {
+        MappedByteBuffer target;
+        int from;
+        int to;
+        synchronized (this) {
+            if (closed || position == syncedPosition) {
+                return;
+            }
+            target = segment;
+            from = syncedPosition;
+            to = position;
+            syncedPosition = position;
+        }
+        // outside the lock: appenders keep writing while the dirty range is flushed
+        target.force(from, to - from);
+    }
+
+    public synchronized long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    public synchronized int segmentCount() {
+        return segments;
+    }
+
+    @Override
+    public void close() {
+        if (syncer != null) {
+            syncer.shutdown();
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (segment != null) {
+                segment.force();
+                segment = null;
+            }
+        }
+    }
+
+    private void recover(Consumer<LedgerRecord> replay) throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(config.dir())) {
+            files = list.filter(p -> p.getFileName().toString().matches("ledger-\\d{20}\\.seg"))
+                    .sorted()
+                    .toList();
+        }
+        List<Path> stale = new ArrayList<>();
+        boolean ended = false;
+        for (Path file : files) {
+            if (ended) {
+                // a segment after a torn tail can only hold records that were never acknowledged
+                stale.add(file);
+                continue;
+            }
+            MappedByteBuffer mapped = map(file);
+            if (mapped.getInt(0) == 0) {
+                // created but the header never reached the disk
+                ended = true;
+                stale.add(file);
+                continue;
+            }
+            if (mapped.getInt(0) == MAGIC && mapped.getInt(4) != VERSION) {
+                throw new IllegalStateException("Unsupported ledger journal version " + mapped.getInt(4) + ": " + file);
+            }
+            if (mapped.getInt(0) != MAGIC || mapped.getLong(8) != nextSequence) {
+                throw new IllegalStateException("Ledger journal segment is corrupt: " + file);
+            }
+            segment = mapped;
+            segments++;
+            position = HEADER_SIZE;
+            List<LedgerRecord> group = new ArrayList<>();
+            int groupStart = position;
+            while (position + RECORD_SIZE <= segmentSize) {
+                LedgerRecord record = read(mapped, position);
+                if (record == null) {
+                    ended = true;
+                    break;
+                }
+                if (group.isEmpty()) {
+                    groupStart = position;
+                }
+                group.add(record);
+                boolean more = (mapped.getInt(position + 32) & GROUPED) != 0;
+                nextSequence++;
+                position += RECORD_SIZE;
+                if (!more) {
+                    group.forEach(replay);
+                    group.clear();
+                }
+            }
+            if (!group.isEmpty()) {
+                // the group's last record never made it: none of it was acknowledged, so write over it
+                mapped.put(groupStart, new byte[position - groupStart]);
+                mapped.force(groupStart, position - groupStart);
+                nextSequence -= group.size();
+                position = groupStart;
+                ended = true;
+            }
+        }
+        for (Path file : stale) {
+            Files.delete(file);
+        }
+        if (segment == null) {
+            roll();
+        }
+        syncedPosition = position;
+    }
+
+    private LedgerRecord read(MappedByteBuffer mapped, int at) {
+        long sequence = mapped.getLong(at);
+        if (sequence != nextSequence) {
+            return null;
+        }
+        mapped.get(at, scratch);
+        crc.reset();
+        crc.update(scratch, 0, CHECKSUMMED);
+        if ((int) crc.getValue() != mapped.getInt(at + CHECKSUMMED)) {
+            return null;
+        }
+        LedgerRecord.Kind kind = LedgerRecord.Kind.of(mapped.getInt(at + 32) & ~GROUPED);
+        if (kind == null) {
+            return null;
+        }
+        return new LedgerRecord(sequence, kind, mapped.getInt(at + 24), mapped.getInt(at + 28),
+                mapped.getLong(at + 8), mapped.getLong(at + 16));
+    }
+
+    // caller holds the lock (or is still opening)
+    private void roll() {
+        try {
+            if (segment != null) {
+                segment.force();
+            }
+            Path file = config.dir().resolve(String.format("ledger-%020d.seg", nextSequence));
+            MappedByteBuffer mapped = map(file);
+            mapped.putInt(0, MAGIC);
+            mapped.putInt(4, VERSION);
+            mapped.putLong(8, nextSequence);
+            mapped.force(0, HEADER_SIZE);
+            segment = mapped;
+            segments++;
+            position = HEADER_SIZE;
+            syncedPosition = position;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll ledger journal segment", e);
+        }
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+}
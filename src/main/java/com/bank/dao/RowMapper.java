@@ -0,0 +1,65 @@
+package com.bank.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads the current row of a result set into a model, by column index. A mapper is made for
+ * one result set by a {@link Factory}, which looks the column ordinals up by label once, so the
+ * per-row path does no name lookups and may keep per-result-set caches.
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+
+    T map(ResultSet rs) throws SQLException;
+
+    @FunctionalInterface
+    interface Factory<T> {
+        RowMapper<T> bind(ResultSet rs) throws SQLException;
+    }
+
+    /** Maps every remaining row of {@code rs} into {@code into}. */
+    static <T> List<T> readAll(ResultSet rs, Factory<T> factory, List<T> into) throws SQLException {
+        RowMapper<T> mapper = factory.bind(rs);
+        while (rs.next()) {
+            into.add(mapper.map(rs));
+        }
+        return into;
+    }
+
+    /** {@code null} for SQL NULL; {@code wasNull} is only asked when the driver returns 0. */
+    static Integer nullableInt(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return value == 0 && rs.wasNull() ? null : value;
+    }
+
+    /**
+     * A {@code yyyy-MM-dd HH:mm:ss} text column (as CURRENT_TIMESTAMP writes it) parsed in place;
+     * anything else goes through the driver's {@code getTimestamp}.
+     */
+    static LocalDateTime timestamp(ResultSet rs, int column) throws SQLException {
+        String text = rs.getString(column);
+        if (text == null) {
+            return null;
+        }
+        if (text.length() != 19 || text.charAt(4) != '-' || text.charAt(10) != ' ' || text.charAt(13) != ':') {
+            return rs.getTimestamp(column).toLocalDateTime();
+        }
+        return LocalDateTime.of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10),
+                digits(text, 11, 13), digits(text, 14, 16), digits(text, 17, 19));
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int d = text.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                throw new IllegalArgumentException("Bad timestamp: " + text);
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
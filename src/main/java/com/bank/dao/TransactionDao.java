@@ -1,62 +1,253 @@
 package com.bank.dao;
 
+import com.bank.db.Archive;
 import com.bank.db.Database;
+import com.bank.model.DateRange;
+import com.bank.model.LedgerEntry;
+import com.bank.model.Money;
 import com.bank.model.Transaction;
 import com.bank.model.TransactionType;
 
-import java.math.BigDecimal;
 import java.sql.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public class TransactionDao {
+public class TransactionDao implements TransactionRepository {
+    // created_at is stored as CURRENT_TIMESTAMP writes it
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // bounds for an open DateRange; compare as text against any stored timestamp
+    private static final String OPEN_START = "0000-01-01 00:00:00";
+    private static final String OPEN_END = "9999-12-31 23:59:59";
 
-    public void insertDeposit(int accountId, BigDecimal amount) {
+    static final String INSERT =
+            "INSERT INTO transactions(type, from_account_id, to_account_id, amount_cents, reversed) VALUES(?,?,?,?,0)";
+    static final String LAST_INSERT_ID = "SELECT last_insert_rowid()";
+    static final String FIND_ALL = select("main.transactions") + " ORDER BY t.id DESC";
+    static final String FIND_PAGE = select("main.transactions") + " WHERE t.id < ? ORDER BY t.id DESC LIMIT ?";
+    static final String FIND_BY_ID = select("main.transactions") + " WHERE t.id = ?";
+    static final String FIND_CREATED_BETWEEN = select("main.transactions")
+            + " WHERE t.created_at >= ? AND t.created_at < ? ORDER BY 1 DESC";
+    static final String FIND_CREATED_BETWEEN_WITH_ARCHIVE = select("main.transactions")
+            + " WHERE t.created_at >= ? AND t.created_at < ?"
+            + " UNION ALL " + select("archive.transactions")
+            + " WHERE t.created_at >= ? AND t.created_at < ? AND " + Archive.NOT_IN_HOT
+            + " ORDER BY 1 DESC";
+    static final String FIND_BY_ACCOUNT = "SELECT * FROM (" + accountSide("main.transactions", "from_account_id", false) + ")"
+            + " UNION ALL SELECT * FROM (" + accountSide("main.transactions", "to_account_id", false) + ")"
+            + " ORDER BY 7 DESC, 1 DESC LIMIT ?";
+    static final String FIND_BY_ACCOUNT_WITH_ARCHIVE = "SELECT * FROM (" + accountSide("main.transactions", "from_account_id", false) + ")"
+            + " UNION ALL SELECT * FROM (" + accountSide("main.transactions", "to_account_id", false) + ")"
+            + " UNION ALL SELECT * FROM (" + accountSide("archive.transactions", "from_account_id", true) + ")"
+            + " UNION ALL SELECT * FROM (" + accountSide("archive.transactions", "to_account_id", true) + ")"
+            + " ORDER BY 7 DESC, 1 DESC LIMIT ?";
+    static final String MARK_REVERSED = "UPDATE transactions SET reversed = 1 WHERE id = ?";
+    // the flag is the guard: of two concurrent reversals only one gets the row back; entries past
+    // the archive age are settled and never match
+    static final String REVERSE =
+            "UPDATE transactions SET reversed = 1 WHERE id = ? AND reversed = 0 AND created_at >= ?"
+                    + " RETURNING type, from_account_id, to_account_id, amount_cents";
+    static final String FIND_REVERSED = "SELECT reversed FROM transactions WHERE id = ?";
+
+    // labels are built once per account within a result set: journals repeat the same accounts a lot
+    static final RowMapper.Factory<Transaction> TRANSACTION = rs -> {
+        int id = rs.findColumn("id");
+        int type = rs.findColumn("type");
+        int from = rs.findColumn("from_account_id");
+        int to = rs.findColumn("to_account_id");
+        int amount = rs.findColumn("amount_cents");
+        int reversed = rs.findColumn("reversed");
+        int created = rs.findColumn("created_at");
+        int fromName = rs.findColumn("from_name");
+        int fromOwner = rs.findColumn("from_owner");
+        int toName = rs.findColumn("to_name");
+        int toOwner = rs.findColumn("to_owner");
+        IntMap<String> labels = new IntMap<>();
+        return r -> {
+            Integer fromId = RowMapper.nullableInt(r, from);
+            Integer toId = RowMapper.nullableInt(r, to);
+            return new Transaction(r.getInt(id), TransactionType.valueOf(r.getString(type)), fromId, toId,
+                    Money.ofCents(r.getLong(amount)), r.getInt(reversed) == 1, RowMapper.timestamp(r, created),
+                    label(r, labels, fromId, fromName, fromOwner), label(r, labels, toId, toName, toOwner));
+        };
+    };
+
+    // journal rows only, balances untouched; the repository posts through AccountDao and postBatch
+    public void insertDeposit(int accountId, Money amount) {
         insert(TransactionType.DEPOSIT, null, accountId, amount);
     }
 
-    public void insertWithdraw(int accountId, BigDecimal amount) {
+    public void insertWithdraw(int accountId, Money amount) {
         insert(TransactionType.WITHDRAW, accountId, null, amount);
     }
 
-    public void insertTransfer(int fromId, int toId, BigDecimal amount) {
+    public void insertTransfer(int fromId, int toId, Money amount) {
         insert(TransactionType.TRANSFER, fromId, toId, amount);
     }
 
-    private void insert(TransactionType type, Integer fromId, Integer toId, BigDecimal amount) {
-        String sql = "INSERT INTO transactions(type, from_account_id, to_account_id, amount, reversed) VALUES(?,?,?,?,0)";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, type.name());
-            if (fromId == null) ps.setNull(2, Types.INTEGER); else ps.setInt(2, fromId);
-            if (toId == null) ps.setNull(3, Types.INTEGER); else ps.setInt(3, toId);
-            ps.setBigDecimal(4, amount);
-            ps.executeUpdate();
+    private void insert(TransactionType type, Integer fromId, Integer toId, Money amount) {
+        try {
+            Database.writer().execute(conn -> {
+                insert(conn, type, fromId, toId, amount);
+                return null;
+            });
         } catch (Exception e) {
             throw new RuntimeException("Failed to insert transaction", e);
         }
     }
 
+    static void insert(Connection conn, TransactionType type, Integer fromId, Integer toId, Money amount) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT)) {
+            bind(ps, type, fromId, toId, amount);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void bind(PreparedStatement ps, TransactionType type, Integer fromId, Integer toId, Money amount)
+            throws SQLException {
+        ps.setString(1, type.name());
+        if (fromId == null) ps.setNull(2, Types.INTEGER); else ps.setInt(2, fromId);
+        if (toId == null) ps.setNull(3, Types.INTEGER); else ps.setInt(3, toId);
+        ps.setLong(4, amount.cents());
+    }
+
+    @Override
+    public int[] postBatch(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return new int[0];
+        }
+        try {
+            // balances and journal rows are one writer command: both commit or neither does
+            return Database.writer().execute(conn -> {
+                AccountDao.adjustBalances(conn, LedgerEntry.balanceChanges(entries));
+                return insertBatch(conn, entries);
+            });
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to post transactions", e);
+        }
+    }
+
+    static int[] insertBatch(Connection conn, List<LedgerEntry> entries) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT)) {
+            for (LedgerEntry entry : entries) {
+                bind(ps, entry.type(), entry.fromAccountId(), entry.toAccountId(), entry.amount());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        // the writer holds the only write transaction, so AUTOINCREMENT hands out consecutive ids
+        long last;
+        try (PreparedStatement ps = conn.prepareStatement(LAST_INSERT_ID);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            last = rs.getLong(1);
+        }
+        int[] ids = new int[entries.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = (int) (last - ids.length + 1 + i);
+        }
+        return ids;
+    }
+
+    @Override
     public List<Transaction> findAll() {
         List<Transaction> list = new ArrayList<>();
-        String sql = """
-                SELECT t.id, t.type, t.from_account_id, t.to_account_id, t.amount, t.reversed, t.created_at,
-                       af.name AS from_name, au.username AS from_owner,
-                       at.name AS to_name, tu.username AS to_owner
-                FROM transactions t
-                LEFT JOIN accounts af ON t.from_account_id = af.id
-                LEFT JOIN users au ON af.user_id = au.id
-                LEFT JOIN accounts at ON t.to_account_id = at.id
-                LEFT JOIN users tu ON at.user_id = tu.id
-                ORDER BY t.id DESC
-                """;
-        try (Connection conn = Database.getConnection();
-             Statement st = conn.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
-            while (rs.next()) {
-                list.add(map(rs));
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_ALL);
+             ResultSet rs = ps.executeQuery()) {
+            RowMapper.readAll(rs, TRANSACTION, list);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch transactions", e);
+        }
+        return list;
+    }
+
+    @Override
+    public Stream<Transaction> streamAll(int fetchSize) {
+        Connection conn = null;
+        try {
+            conn = Database.getReadConnection();
+            return Cursor.stream(conn, conn.prepareStatement(FIND_ALL), fetchSize, TRANSACTION);
+        } catch (SQLException e) {
+            try {
+                if (conn != null) conn.close();
+            } catch (SQLException ignored) {
+                // already failing
+            }
+            throw new RuntimeException("Failed to stream transactions", e);
+        }
+    }
+
+    @Override
+    public List<Transaction> findPage(Integer beforeId, int limit) {
+        List<Transaction> list = new ArrayList<>(limit);
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_PAGE)) {
+            ps.setLong(1, beforeId == null ? Long.MAX_VALUE : beforeId);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper.readAll(rs, TRANSACTION, list);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch transactions", e);
+        }
+        return list;
+    }
+
+    @Override
+    public List<Transaction> findByAccount(int accountId, DateRange range, int limit) {
+        List<Transaction> list = new ArrayList<>(limit);
+        String start = range.from() == null ? OPEN_START : TIMESTAMP.format(range.from());
+        String end = range.to() == null ? OPEN_END : TIMESTAMP.format(range.to());
+        try (Connection conn = Database.getReadConnection()) {
+            String horizon = Archive.isAttached(conn) ? Archive.horizon(conn) : null;
+            boolean cold = horizon != null && start.compareTo(horizon) <= 0;
+            try (PreparedStatement ps = conn.prepareStatement(cold ? FIND_BY_ACCOUNT_WITH_ARCHIVE : FIND_BY_ACCOUNT)) {
+                int i = 1;
+                // each side reads at most `limit` rows off its index, then the merge keeps the newest
+                for (int side = 0; side < (cold ? 4 : 2); side++) {
+                    ps.setInt(i++, accountId);
+                    ps.setString(i++, start);
+                    ps.setString(i++, end);
+                    ps.setInt(i++, limit);
+                }
+                ps.setInt(i, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    RowMapper.readAll(rs, TRANSACTION, list);
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to fetch account history", e);
+        }
+        return list;
+    }
+
+    @Override
+    public List<Transaction> findCreatedBetween(LocalDateTime from, LocalDateTime to) {
+        List<Transaction> list = new ArrayList<>();
+        String start = TIMESTAMP.format(from);
+        String end = TIMESTAMP.format(to);
+        try (Connection conn = Database.getReadConnection()) {
+            // the archive only holds entries up to its horizon; later ranges stay on the hot table
+            String horizon = Archive.isAttached(conn) ? Archive.horizon(conn) : null;
+            boolean cold = horizon != null && start.compareTo(horizon) <= 0;
+            try (PreparedStatement ps = conn.prepareStatement(cold ? FIND_CREATED_BETWEEN_WITH_ARCHIVE : FIND_CREATED_BETWEEN)) {
+                ps.setString(1, start);
+                ps.setString(2, end);
+                if (cold) {
+                    ps.setString(3, start);
+                    ps.setString(4, end);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    RowMapper.readAll(rs, TRANSACTION, list);
+                }
             }
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch transactions", e);
@@ -64,23 +255,13 @@ public class TransactionDao {
         return list;
     }
 
+    @Override
     public Optional<Transaction> findById(int id) {
-        String sql = """
-                SELECT t.id, t.type, t.from_account_id, t.to_account_id, t.amount, t.reversed, t.created_at,
-                       af.name AS from_name, au.username AS from_owner,
-                       at.name AS to_name, tu.username AS to_owner
-                FROM transactions t
-                LEFT JOIN accounts af ON t.from_account_id = af.id
-                LEFT JOIN users au ON af.user_id = au.id
-                LEFT JOIN accounts at ON t.to_account_id = at.id
-                LEFT JOIN users tu ON at.user_id = tu.id
-                WHERE t.id = ?
-                """;
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_BY_ID)) {
             ps.setInt(1, id);
             try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return Optional.of(map(rs));
+                if (rs.next()) return Optional.of(TRANSACTION.bind(rs).map(rs));
             }
         } catch (Exception e) {
             throw new RuntimeException("Failed to find transaction", e);
@@ -89,30 +270,127 @@ public class TransactionDao {
     }
 
     public void markReversed(int id) {
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement("UPDATE transactions SET reversed = 1 WHERE id = ?")) {
-            ps.setInt(1, id);
-            ps.executeUpdate();
+        try {
+            Database.writer().execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(MARK_REVERSED)) {
+                    ps.setInt(1, id);
+                    ps.executeUpdate();
+                }
+                return null;
+            });
         } catch (Exception e) {
             throw new RuntimeException("Failed to mark reversed", e);
         }
     }
 
-    private Transaction map(ResultSet rs) throws Exception {
-        int id = rs.getInt("id");
-        TransactionType type = TransactionType.valueOf(rs.getString("type"));
-        Integer fromId = rs.getObject("from_account_id") == null ? null : rs.getInt("from_account_id");
-        Integer toId = rs.getObject("to_account_id") == null ? null : rs.getInt("to_account_id");
-        BigDecimal amount = rs.getBigDecimal("amount");
-        boolean reversed = rs.getInt("reversed") == 1;
-        LocalDateTime created = rs.getTimestamp("created_at").toLocalDateTime();
-        String fromLabel = rs.getString("from_name");
-        String fromOwner = rs.getString("from_owner");
-        String toLabel = rs.getString("to_name");
-        String toOwner = rs.getString("to_owner");
-        String from = fromLabel == null ? "" : fromLabel + " (" + fromOwner + ")";
-        String to = toLabel == null ? "" : toLabel + " (" + toOwner + ")";
-        return new Transaction(id, type, fromId, toId, amount, reversed, created, from, to);
+    private static String select(String table) {
+        return """
+                SELECT t.id, t.type, t.from_account_id, t.to_account_id, t.amount_cents, t.reversed, t.created_at,
+                       af.name AS from_name, au.username AS from_owner,
+                       at.name AS to_name, tu.username AS to_owner
+                FROM %s t
+                LEFT JOIN main.accounts af ON t.from_account_id = af.id
+                LEFT JOIN main.users au ON af.user_id = au.id
+                LEFT JOIN main.accounts at ON t.to_account_id = at.id
+                LEFT JOIN main.users tu ON at.user_id = tu.id
+                """.formatted(table);
+    }
+
+    private static String accountSide(String table, String column, boolean cold) {
+        return select(table) + " WHERE t." + column + " = ? AND t.created_at >= ? AND t.created_at < ?"
+                + (cold ? " AND " + Archive.NOT_IN_HOT : "")
+                + " ORDER BY t.created_at DESC, t.id DESC LIMIT ?";
+    }
+
+    @Override
+    public void reverse(int id) {
+        reverseAll(List.of(id));
+    }
+
+    @Override
+    public void reverseAll(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Duration archiveAge = Database.config().archiveAge();
+        String settled = archiveAge == null ? OPEN_START
+                : TIMESTAMP.format(LocalDateTime.now(ZoneOffset.UTC).minus(archiveAge));
+        try {
+            // one writer command: a failure on any id rolls back every reversal before it
+            Database.writer().execute(conn -> {
+                for (int id : ids) {
+                    reverse(conn, id, settled);
+                }
+                return null;
+            });
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to reverse transaction", e);
+        }
+    }
+
+    private void reverse(Connection conn, int id, String settled) throws SQLException {
+        TransactionType type;
+        Integer fromId;
+        Integer toId;
+        Money amount;
+        try (PreparedStatement ps = conn.prepareStatement(REVERSE)) {
+            ps.setInt(1, id);
+            ps.setString(2, settled);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    Boolean reversed = findReversed(conn, id);
+                    if (reversed == null) {
+                        throw new IllegalArgumentException("Транзакция не найдена");
+                    }
+                    throw new IllegalStateException(reversed ? "Уже откатано" : "Транзакция закрыта, откат невозможен");
+                }
+                type = TransactionType.valueOf(rs.getString(1));
+                fromId = RowMapper.nullableInt(rs, 2);
+                toId = RowMapper.nullableInt(rs, 3);
+                amount = Money.ofCents(rs.getLong(4));
+            }
+        }
+        // undo: the target gives the money back (never below zero), the source gets it back
+        if (type != TransactionType.WITHDRAW) {
+            undo(conn, toId, amount.negate(), "Счет получателя не найден");
+        }
+        if (type != TransactionType.DEPOSIT) {
+            undo(conn, fromId, amount, "Счет отправителя не найден");
+        }
+    }
+
+    private static void undo(Connection conn, Integer accountId, Money delta, String missing) throws SQLException {
+        if (accountId == null || !AccountDao.adjust(conn, accountId, delta)) {
+            if (accountId == null || AccountDao.getBalance(conn, accountId) == null) {
+                throw new IllegalArgumentException(missing);
+            }
+            throw new IllegalArgumentException("Недостаточно средств для отката");
+        }
+    }
+
+    private static Boolean findReversed(Connection conn, int id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(FIND_REVERSED)) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) == 1 : null;
+            }
+        }
+    }
+
+    private static String label(ResultSet rs, IntMap<String> labels, Integer accountId, int name, int owner)
+            throws SQLException {
+        if (accountId == null) {
+            return "";
+        }
+        String label = labels.get(accountId);
+        if (label == null) {
+            String accountName = rs.getString(name);
+            label = accountName == null ? "" : accountName + " (" + rs.getString(owner) + ")";
+            labels.put(accountId, label);
+        }
+        return label;
     }
 }
 
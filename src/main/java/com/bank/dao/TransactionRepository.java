@@ -0,0 +1,74 @@
+package com.bank.dao;
+
+import com.bank.model.DateRange;
+import com.bank.model.LedgerEntry;
+import com.bank.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Transaction journal storage; newest first in {@link #findAll()}. Once entries are archived,
+ * {@code findAll} and {@code findById} cover the hot table only, and {@link #findCreatedBetween}
+ * also reaches archived entries.
+ */
+public interface TransactionRepository {
+
+    /**
+     * Applies {@code LedgerEntry.balanceChanges(entries)} and journals every entry in one commit;
+     * returns the new ids, in order. Nothing changes if any account is missing or would go below
+     * zero.
+     */
+    int[] postBatch(List<LedgerEntry> entries);
+
+    List<Transaction> findAll();
+
+    /**
+     * Up to {@code limit} entries with {@code id < beforeId}, newest first; {@code beforeId} of
+     * {@code null} starts at the newest entry. Seeks on the primary key, so every page costs the
+     * same however long the journal is.
+     */
+    List<Transaction> findPage(Integer beforeId, int limit);
+
+    /**
+     * Every hot entry, newest first, read lazily in batches of {@code fetchSize}. The stream holds
+     * a connection until it is exhausted or closed; use it in try-with-resources.
+     */
+    Stream<Transaction> streamAll(int fetchSize);
+
+    /** Pushes every hot entry to {@code consumer}, newest first; returns how many there were. */
+    default long forEach(int fetchSize, Consumer<Transaction> consumer) {
+        long count = 0;
+        try (Stream<Transaction> stream = streamAll(fetchSize)) {
+            for (Iterator<Transaction> it = stream.iterator(); it.hasNext(); count++) {
+                consumer.accept(it.next());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Up to {@code limit} entries where the account is the source or the target, newest first.
+     * Reads the (account, created_at) indexes from the top, so the cost is {@code limit} rows
+     * however many postings the account has.
+     */
+    List<Transaction> findByAccount(int accountId, DateRange range, int limit);
+
+    /** Entries with {@code from <= created_at < to}, newest first. */
+    List<Transaction> findCreatedBetween(LocalDateTime from, LocalDateTime to);
+
+    Optional<Transaction> findById(int id);
+
+    /**
+     * Marks the entry reversed and undoes its balance effect in one commit. Throws
+     * {@link IllegalStateException} if it was already reversed, so it never applies twice.
+     */
+    void reverse(int id);
+
+    /** {@link #reverse} for each id, all in one commit; if one fails, none is reversed. */
+    void reverseAll(List<Integer> ids);
+}
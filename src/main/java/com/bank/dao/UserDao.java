@@ -7,22 +7,31 @@ import com.bank.model.User;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
-public class UserDao {
+public class UserDao implements UserRepository {
+    static final String FIND_BY_CREDENTIALS = "SELECT id, username, password, role FROM users WHERE username = ? AND password = ?";
+    static final String FIND_ALL = "SELECT id, username, password, role FROM users ORDER BY username";
 
+    static final RowMapper.Factory<User> USER = rs -> {
+        int id = rs.findColumn("id");
+        int username = rs.findColumn("username");
+        int password = rs.findColumn("password");
+        int role = rs.findColumn("role");
+        return r -> new User(r.getInt(id), r.getString(username), r.getString(password), Role.valueOf(r.getString(role)));
+    };
+
+    @Override
     public Optional<User> findByCredentials(String username, String password) {
-        String sql = "SELECT id, username, password, role FROM users WHERE username = ? AND password = ?";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement ps = conn.prepareStatement(sql)) {
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_BY_CREDENTIALS)) {
             ps.setString(1, username);
             ps.setString(2, password);
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return Optional.of(map(rs));
+                    return Optional.of(USER.bind(rs).map(rs));
                 }
             }
         } catch (Exception e) {
@@ -31,27 +40,17 @@ public class UserDao {
         return Optional.empty();
     }
 
+    @Override
     public List<User> findAll() {
         List<User> users = new ArrayList<>();
-        String sql = "SELECT id, username, password, role FROM users ORDER BY username";
-        try (Connection conn = Database.getConnection();
-             Statement st = conn.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
-            while (rs.next()) {
-                users.add(map(rs));
-            }
+        try (Connection conn = Database.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(FIND_ALL);
+             ResultSet rs = ps.executeQuery()) {
+            RowMapper.readAll(rs, USER, users);
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch users", e);
         }
         return users;
     }
-
-    private User map(ResultSet rs) throws Exception {
-        int id = rs.getInt("id");
-        String u = rs.getString("username");
-        String p = rs.getString("password");
-        Role role = Role.valueOf(rs.getString("role"));
-        return new User(id, u, p, role);
-    }
 }
 
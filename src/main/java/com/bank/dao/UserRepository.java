@@ -0,0 +1,14 @@
+package com.bank.dao;
+
+import com.bank.model.User;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepository {
+
+    Optional<User> findByCredentials(String username, String password);
+
+    /** Ordered by username. */
+    List<User> findAll();
+}
@@ -0,0 +1,117 @@
+package com.bank.db;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The cold half of the transactions table: an archive database ATTACHed as {@code archive} on
+ * every connection the {@link Database} pools open, when {@link DatabaseConfig#archiveAge} is
+ * set. {@link ArchiveJob} moves settled entries there; queries that reach past {@link #horizon}
+ * union it with the hot table, and fall back to the hot table alone where it is not attached.
+ *
+ * <p>A move is two commits (copy into the archive, then delete from the hot table) because WAL
+ * does not make a transaction atomic across attached files. Between the two an entry exists in
+ * both; {@link #NOT_IN_HOT} skips such entries, and the next run deletes the hot copy.
+ */
+public final class Archive {
+    public static final String SCHEMA = "archive";
+
+    /** Filter for {@code archive.transactions t}: skips entries that are still in the hot table. */
+    public static final String NOT_IN_HOT = "NOT EXISTS (SELECT 1 FROM main.transactions h WHERE h.id = t.id)";
+
+    private Archive() {
+    }
+
+    /** {@code bank.db} → {@code bank.archive.db}; in-memory databases get an in-memory archive. */
+    public static String locationFor(DatabaseConfig config) {
+        if (config.inMemory()) {
+            String url = config.url().substring("jdbc:sqlite:".length());
+            int query = url.indexOf('?');
+            return url.substring(0, query) + "-archive" + url.substring(query);
+        }
+        return locationFor(config.file()).toString();
+    }
+
+    /** {@code bank.db} → {@code bank.archive.db}, next to the database file. */
+    public static Path locationFor(Path databaseFile) {
+        String name = databaseFile.getFileName().toString();
+        String base = name.endsWith(".db") ? name.substring(0, name.length() - 3) : name;
+        return databaseFile.resolveSibling(base + ".archive.db");
+    }
+
+    /**
+     * Attaches the archive; {@code create} also creates its schema (write connections only, a
+     * read-only connection cannot create the file).
+     */
+    static void attach(Connection conn, DatabaseConfig config, boolean create) throws SQLException {
+        attach(conn, locationFor(config));
+        if (!create) {
+            return;
+        }
+        try (Statement st = conn.createStatement()) {
+            if (!config.inMemory()) {
+                st.execute("PRAGMA archive.journal_mode = WAL");
+            }
+            // no foreign keys: accounts live in the main database
+            st.execute("""
+                    CREATE TABLE IF NOT EXISTS archive.transactions (
+                        id INTEGER PRIMARY KEY,
+                        type TEXT NOT NULL,
+                        from_account_id INTEGER NULL,
+                        to_account_id INTEGER NULL,
+                        amount_cents INTEGER NOT NULL,
+                        reversed INTEGER NOT NULL DEFAULT 0,
+                        created_at DATETIME
+                    )
+                    """);
+            st.execute("CREATE INDEX IF NOT EXISTS archive.idx_archive_created_at ON transactions(created_at)");
+            st.execute("CREATE INDEX IF NOT EXISTS archive.idx_archive_from ON transactions(from_account_id, created_at)");
+            st.execute("CREATE INDEX IF NOT EXISTS archive.idx_archive_to ON transactions(to_account_id, created_at)");
+            st.execute("CREATE INDEX IF NOT EXISTS archive.idx_archive_reversed ON transactions(id) WHERE reversed = 1");
+        }
+    }
+
+    static void attach(Connection conn, String location) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("ATTACH DATABASE ? AS " + SCHEMA)) {
+            ps.setString(1, location);
+            ps.execute();
+        }
+    }
+
+    public static boolean isAttached(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("PRAGMA database_list")) {
+            while (rs.next()) {
+                if (SCHEMA.equals(rs.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Newest {@code created_at} in the archive (as stored), or {@code null} if nothing is archived yet. */
+    public static String horizon(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT MAX(created_at) FROM archive.transactions")) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    /** The ledger as one relation: hot rows plus archived rows not still in the hot table. */
+    static String ledger(Connection conn) throws SQLException {
+        if (!isAttached(conn)) {
+            return "main.transactions";
+        }
+        return """
+                (SELECT id, from_account_id, to_account_id, amount_cents, reversed FROM main.transactions
+                 UNION ALL
+                 SELECT id, from_account_id, to_account_id, amount_cents, reversed FROM archive.transactions t
+                 WHERE %s)
+                """.formatted(NOT_IN_HOT);
+    }
+}
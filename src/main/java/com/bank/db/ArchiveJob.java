@@ -0,0 +1,129 @@
+package com.bank.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves transactions older than {@code age} from the hot table into the {@link Archive}.
+ * Entries that old are settled: rollback refuses anything older than the archive age, so an
+ * archived entry can no longer be reversed and never changes again.
+ *
+ * <p>Work is done in chunks of {@code chunkSize} entries. A chunk is copied and deleted from the
+ * hot table in one {@link LedgerWriter} command, so no reversal can land between the two, and
+ * deposits and transfers queued meanwhile wait for one chunk at most.
+ */
+public class ArchiveJob {
+    private static final Logger LOG = Logger.getLogger(ArchiveJob.class.getName());
+    // created_at is stored the way CURRENT_TIMESTAMP writes it: UTC, text
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String COLUMNS = "id, type, from_account_id, to_account_id, amount_cents, reversed, created_at";
+
+    private final LedgerWriter writer;
+    private final Duration age;
+    private final int chunkSize;
+    private final Clock clock;
+    private volatile boolean stopped;
+
+    public ArchiveJob(LedgerWriter writer, Duration age, int chunkSize, Clock clock) {
+        if (age.isNegative() || chunkSize <= 0) {
+            throw new IllegalArgumentException("Archive age must be >= 0 and chunk size > 0");
+        }
+        this.writer = writer;
+        this.age = age;
+        this.chunkSize = chunkSize;
+        this.clock = clock;
+    }
+
+    public static ArchiveJob forDatabase(Duration age) {
+        if (Database.config().archiveAge() == null) {
+            throw new IllegalStateException("Archiving is not configured: set " + DatabaseConfig.ARCHIVE_PROPERTY);
+        }
+        return new ArchiveJob(Database.writer(), age, 5_000, Clock.systemUTC());
+    }
+
+    /** Archives everything older than the configured age; returns the number of entries moved. */
+    public long run() {
+        String cutoff = TIMESTAMP.format(LocalDateTime.now(clock.withZone(ZoneOffset.UTC)).minus(age));
+        long t0 = System.nanoTime();
+        // leftovers of an interrupted move; a copy whose flag no longer matches is re-copied below
+        long moved = 0;
+        writer.execute(ArchiveJob::deleteArchivedFromHot);
+        while (true) {
+            int copied = writer.execute(conn -> {
+                int n = copyChunk(conn, cutoff);
+                deleteArchivedFromHot(conn);
+                return n;
+            });
+            moved += copied;
+            if (copied < chunkSize || stopped) {
+                break;
+            }
+        }
+        if (moved > 0) {
+            LOG.info(String.format("Archived %d transactions older than %s in %d ms",
+                    moved, cutoff, (System.nanoTime() - t0) / 1_000_000));
+        }
+        return moved;
+    }
+
+    /** Runs {@link #run} every {@code interval}; closing the result stops it and waits for a running pass. */
+    public AutoCloseable schedule(Duration interval) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "transaction-archive");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                run();
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "Transaction archiving failed", e);
+            }
+        }, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        return () -> {
+            // a run in progress finishes its chunk before the writer underneath it is closed
+            stopped = true;
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private int copyChunk(Connection conn, String cutoff) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT OR REPLACE INTO archive.transactions(" + COLUMNS + ") "
+                        + "SELECT " + COLUMNS + " FROM main.transactions WHERE created_at < ? ORDER BY id LIMIT ?")) {
+            ps.setString(1, cutoff);
+            ps.setInt(2, chunkSize);
+            return ps.executeUpdate();
+        }
+    }
+
+    private static int deleteArchivedFromHot(Connection conn) throws SQLException {
+        // only hot ids up to the newest archived id can have a copy, and only an identical copy
+        // lets the hot row go
+        try (PreparedStatement ps = conn.prepareStatement("""
+                DELETE FROM main.transactions
+                WHERE id <= (SELECT MAX(id) FROM archive.transactions)
+                  AND EXISTS (SELECT 1 FROM archive.transactions a
+                              WHERE a.id = main.transactions.id AND a.reversed = main.transactions.reversed)
+                """)) {
+            return ps.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.bank.db;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of a {@link BackupService} run; {@code steps} is 1 per file for {@code VACUUM INTO}.
+ * Pages and bytes include the archive copy when there is one.
+ */
+public record BackupReport(Path target,
+                           String method,
+                           int pages,
+                           int steps,
+                           long bytes,
+                           long nanos) {
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d pages (%d KB) in %d steps, %d ms -> %s",
+                method, pages, bytes / 1024, steps, nanos / 1_000_000, target);
+    }
+}
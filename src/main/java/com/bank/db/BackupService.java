@@ -0,0 +1,255 @@
+package com.bank.db;
+
+import org.sqlite.SQLiteConnection;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.logging.Logger;
+
+/**
+ * Consistent copies of a live database while deposits and transfers keep running.
+ *
+ * <p>{@link #backup} uses SQLite's online backup API, copying {@code pagesPerStep} pages per step
+ * and pausing between steps so the copy does not compete with writers for I/O. The source
+ * connection holds one read transaction for the whole copy: in WAL mode writers never wait for
+ * it, and the copy is the database as of the moment the backup started instead of restarting
+ * every time a writer commits. {@link #vacuumInto} produces a compacted copy in one statement.
+ *
+ * <p>Both write to {@code <target>.tmp} and rename it over {@code target} when done, so an
+ * interrupted backup never leaves a half-written file under the real name. When the source
+ * connection has the {@link Archive} attached, it is copied too, next to the target under the
+ * name {@link Archive#locationFor(Path)} gives it, so the copy opens with its archive.
+ */
+public class BackupService {
+    private static final Logger LOG = Logger.getLogger(BackupService.class.getName());
+
+    public interface Listener {
+        Listener NONE = (remaining, total) -> {
+        };
+
+        void progress(int remainingPages, int totalPages);
+    }
+
+    public record Options(int pagesPerStep, Duration pause) {
+        public Options {
+            if (pagesPerStep <= 0) {
+                throw new IllegalArgumentException("pagesPerStep must be positive");
+            }
+        }
+
+        /** 256 pages (1 MB at the default page size) per step, 5 ms pause. */
+        public static Options defaults() {
+            return new Options(256, Duration.ofMillis(5));
+        }
+    }
+
+    private final ConnectionPool.ConnectionFactory source;
+
+    public BackupService(ConnectionPool.ConnectionFactory source) {
+        this.source = source;
+    }
+
+    /** Backs up the database opened by {@link Database}. */
+    public static BackupService forDatabase() {
+        return new BackupService(Database::openUnpooledRead);
+    }
+
+    public BackupReport backup(Path target) {
+        return backup(target, Options.defaults(), Listener.NONE);
+    }
+
+    public BackupReport backup(Path target, Options options, Listener listener) {
+        Path tmp = prepare(target);
+        Path archiveTmp = null;
+        long t0 = System.nanoTime();
+        int[] steps = {0};
+        int[] pages = {0};
+        try (Connection conn = source.open()) {
+            boolean archived = Archive.isAttached(conn);
+            if (archived) {
+                archiveTmp = prepare(Archive.locationFor(target.toAbsolutePath()));
+            }
+            conn.setAutoCommit(false);
+            try {
+                // one read transaction over both schemas: main and archive come from the same moment
+                pinReadTransaction(conn, "main");
+                if (archived) {
+                    pinReadTransaction(conn, Archive.SCHEMA);
+                }
+                copy(conn, "main", tmp, options, listener, steps, pages);
+                if (archived) {
+                    copy(conn, Archive.SCHEMA, archiveTmp, options, listener, steps, pages);
+                }
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            deleteQuietly(tmp);
+            if (archiveTmp != null) {
+                deleteQuietly(archiveTmp);
+            }
+            throw new RuntimeException("Failed to back up database to " + target, e);
+        }
+        return finish("backup", tmp, archiveTmp, target, pages[0], steps[0], t0);
+    }
+
+    private static void copy(Connection conn, String schema, Path tmp, Options options, Listener listener,
+                             int[] steps, int[] pages) throws SQLException {
+        int before = pages[0];
+        int rc = conn.unwrap(SQLiteConnection.class).getDatabase().backup(schema, tmp.toString(),
+                (remaining, total) -> {
+                    steps[0]++;
+                    pages[0] = before + total;
+                    listener.progress(remaining, total);
+                    if (remaining > 0) {
+                        pause(options.pause());
+                    }
+                }, 100, 100, options.pagesPerStep());
+        if (rc != 0) {
+            throw new SQLException("Backup of " + schema + " failed with SQLite error " + rc);
+        }
+    }
+
+    public BackupReport vacuumInto(Path target) {
+        Path tmp = prepare(target);
+        Path archiveTmp = null;
+        long t0 = System.nanoTime();
+        int pages;
+        try (Connection conn = source.open()) {
+            // main before archive: entries only ever move from main to the archive, so an entry
+            // missing from the main copy is already in the archive copy
+            vacuum(conn, "main", tmp);
+            pages = pageCount(conn, "main");
+            if (Archive.isAttached(conn)) {
+                archiveTmp = prepare(Archive.locationFor(target.toAbsolutePath()));
+                vacuum(conn, Archive.SCHEMA, archiveTmp);
+                pages += pageCount(conn, Archive.SCHEMA);
+            }
+        } catch (SQLException e) {
+            deleteQuietly(tmp);
+            if (archiveTmp != null) {
+                deleteQuietly(archiveTmp);
+            }
+            throw new RuntimeException("Failed to vacuum database into " + target, e);
+        }
+        return finish("vacuum-into", tmp, archiveTmp, target, pages, archiveTmp == null ? 1 : 2, t0);
+    }
+
+    private static void vacuum(Connection conn, String schema, Path tmp) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("VACUUM " + schema + " INTO ?")) {
+            ps.setString(1, tmp.toString());
+            ps.execute();
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("usage: BackupService <db-file> <target> [pagesPerStep] [vacuum]");
+            System.exit(2);
+        }
+        Path db = Paths.get(args[0]).toAbsolutePath();
+        Path archive = Archive.locationFor(db);
+        BackupService service = new BackupService(() -> {
+            Connection conn = SqliteProfile.BALANCED.toReadOnlyConfig().createConnection("jdbc:sqlite:" + db);
+            if (Files.exists(archive)) {
+                Archive.attach(conn, archive.toString());
+            }
+            return conn;
+        });
+        Path target = Paths.get(args[1]);
+        if (args.length > 3 && args[3].equals("vacuum")) {
+            System.out.println(service.vacuumInto(target));
+            return;
+        }
+        int pagesPerStep = args.length > 2 ? Integer.parseInt(args[2]) : Options.defaults().pagesPerStep();
+        int[] lastPercent = {-1};
+        BackupReport report = service.backup(target, new Options(pagesPerStep, Options.defaults().pause()),
+                (remaining, total) -> {
+                    int percent = total == 0 ? 100 : (int) ((total - remaining) * 100L / total);
+                    if (percent / 10 != lastPercent[0] / 10) {
+                        lastPercent[0] = percent;
+                        System.out.printf("%3d%% (%d/%d pages)%n", percent, total - remaining, total);
+                    }
+                });
+        System.out.println(report);
+    }
+
+    private static Path prepare(Path target) {
+        Path absolute = target.toAbsolutePath();
+        Path tmp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try {
+            if (absolute.getParent() != null) {
+                Files.createDirectories(absolute.getParent());
+            }
+            // leftovers of an interrupted run; VACUUM INTO refuses an existing file
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prepare backup target " + target, e);
+        }
+        return tmp;
+    }
+
+    private static BackupReport finish(String method, Path tmp, Path archiveTmp, Path target, int pages, int steps,
+                                       long t0) {
+        try {
+            long bytes = 0;
+            if (archiveTmp != null) {
+                Path archive = Archive.locationFor(target.toAbsolutePath());
+                Files.move(archiveTmp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                bytes += Files.size(archive);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            bytes += Files.size(target);
+            BackupReport report = new BackupReport(target, method, pages, steps, bytes, System.nanoTime() - t0);
+            LOG.info(report.toString());
+            return report;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to move backup to " + target, e);
+        }
+    }
+
+    // any read starts the transaction; until it ends the connection sees one fixed snapshot
+    private static void pinReadTransaction(Connection conn, String schema) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + schema + ".sqlite_master")) {
+            rs.next();
+        }
+    }
+
+    private static int pageCount(Connection conn, String schema) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("PRAGMA " + schema + ".page_count")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void pause(Duration pause) {
+        if (pause.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // the next run deletes it anyway
+        }
+    }
+}
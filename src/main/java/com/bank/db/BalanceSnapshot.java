@@ -0,0 +1,117 @@
+package com.bank.db;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Balances of all accounts as of transaction {@code lastTransactionId}, plus the ids of entries
+ * that were already reversed at that point. {@code balances} is indexed by account id and
+ * includes the opening balances of accounts up to {@code lastAccountId}.
+ *
+ * <p>File layout: magic, version, last transaction id, last account id, account slots, non-zero
+ * {@code (id, cents)} pairs, reversed ids, CRC32. Written to a temp file, fsynced and renamed over the old snapshot, so a
+ * reader sees either the previous snapshot or the new one.
+ */
+public record BalanceSnapshot(long lastTransactionId, int lastAccountId, long[] balances, long[] reversedIds) {
+    private static final int MAGIC = 0x424B5353; // "BKSS"
+    private static final int VERSION = 2;
+
+    /** {@code bank.db} → {@code bank.db.balances}; in-memory databases have no snapshot file. */
+    public static Optional<Path> pathFor(DatabaseConfig config) {
+        return config.inMemory()
+                ? Optional.empty()
+                : Optional.of(config.file().resolveSibling(config.file().getFileName() + ".balances"));
+    }
+
+    public void write(Path file) {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+                CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fos, 1 << 16), new CRC32());
+                DataOutputStream out = new DataOutputStream(checked);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(lastTransactionId);
+                out.writeInt(lastAccountId);
+                out.writeInt(balances.length);
+                int nonZero = 0;
+                for (long b : balances) {
+                    if (b != 0) {
+                        nonZero++;
+                    }
+                }
+                out.writeInt(nonZero);
+                for (int id = 0; id < balances.length; id++) {
+                    if (balances[id] != 0) {
+                        out.writeInt(id);
+                        out.writeLong(balances[id]);
+                    }
+                }
+                out.writeInt(reversedIds.length);
+                for (long id : reversedIds) {
+                    out.writeLong(id);
+                }
+                out.flush();
+                fos.write(intBytes((int) checked.getChecksum().getValue()));
+                fos.getFD().sync();
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write balance snapshot " + file, e);
+        }
+    }
+
+    /** Empty if the file is missing or does not pass its checksum. */
+    public static Optional<BalanceSnapshot> read(Path file) {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            CheckedInputStream checked = new CheckedInputStream(raw, new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return Optional.empty();
+            }
+            long lastId = in.readLong();
+            int lastAccountId = in.readInt();
+            long[] balances = new long[in.readInt()];
+            int nonZero = in.readInt();
+            for (int i = 0; i < nonZero; i++) {
+                int id = in.readInt();
+                balances[id] = in.readLong();
+            }
+            long[] reversed = new long[in.readInt()];
+            for (int i = 0; i < reversed.length; i++) {
+                reversed[i] = in.readLong();
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if (new DataInputStream(raw).readInt() != expected) {
+                return Optional.empty();
+            }
+            return Optional.of(new BalanceSnapshot(lastId, lastAccountId, balances, reversed));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (EOFException | RuntimeException e) {
+            // truncated or garbled: fall back to a full replay
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read balance snapshot " + file, e);
+        }
+    }
+
+    private static byte[] intBytes(int v) {
+        return new byte[]{(byte) (v >>> 24), (byte) (v >>> 16), (byte) (v >>> 8), (byte) v};
+    }
+}
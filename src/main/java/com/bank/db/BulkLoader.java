@@ -0,0 +1,329 @@
+package com.bank.db;
+
+import com.bank.model.Role;
+import com.bank.model.TransactionType;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a deterministic synthetic dataset (users, accounts, transaction history) and
+ * loads it with batched inserts. The same {@link Spec} against the same starting schema
+ * always produces the same rows, so performance runs are comparable.
+ *
+ * <p>Every account gets an opening balance in {@code opening_cents} and balances are kept in step
+ * with the generated history, so {@code balance_cents} always equals the opening balance plus the
+ * sum of the account's ledger.
+ * Rows are committed in chunks, so load into a scratch file: a failed load leaves its
+ * committed chunks behind.
+ *
+ * <pre>
+ * java -cp target/classes:&lt;deps&gt; com.bank.db.BulkLoader &lt;db-file&gt; [users] [accountsPerUser] [transactions] [seed]
+ * </pre>
+ */
+public class BulkLoader {
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * @param hotAccountShare fraction of accounts that are "hot"
+     * @param hotTrafficShare fraction of transactions that touch a hot account
+     * @param commitEvery     rows per transaction; bounds the WAL while loading
+     */
+    public record Spec(int users,
+                       int accountsPerUser,
+                       long transactions,
+                       double hotAccountShare,
+                       double hotTrafficShare,
+                       long seed,
+                       int batchSize,
+                       int commitEvery,
+                       LocalDateTime start) {
+
+        public Spec {
+            if (users < 1 || accountsPerUser < 1 || transactions < 0) {
+                throw new IllegalArgumentException("Размер набора данных должен быть положительным");
+            }
+            if (hotAccountShare <= 0 || hotAccountShare > 1 || hotTrafficShare < 0 || hotTrafficShare > 1) {
+                throw new IllegalArgumentException("Доли горячих счетов должны быть в диапазоне (0, 1]");
+            }
+            if (batchSize < 1 || commitEvery < batchSize) {
+                throw new IllegalArgumentException("commitEvery должен быть не меньше batchSize");
+            }
+        }
+
+        /** 10% of accounts take 80% of the traffic. */
+        public static Spec of(int users, int accountsPerUser, long transactions) {
+            return new Spec(users, accountsPerUser, transactions, 0.1, 0.8, 42L, 1_000, 100_000,
+                    LocalDateTime.of(2024, 1, 1, 0, 0));
+        }
+
+        public Spec withSeed(long seed) {
+            return new Spec(users, accountsPerUser, transactions, hotAccountShare, hotTrafficShare,
+                    seed, batchSize, commitEvery, start);
+        }
+
+        public Spec withHotAccounts(double accountShare, double trafficShare) {
+            return new Spec(users, accountsPerUser, transactions, accountShare, trafficShare,
+                    seed, batchSize, commitEvery, start);
+        }
+
+        public int accounts() {
+            return users * accountsPerUser;
+        }
+    }
+
+    private final Spec spec;
+
+    public BulkLoader(Spec spec) {
+        this.spec = spec;
+    }
+
+    public LoadReport load(Connection conn) throws SQLException {
+        long t0 = System.nanoTime();
+        Random random = new Random(spec.seed());
+        boolean autoCommit = conn.getAutoCommit();
+        List<String> indexes = dropTransactionIndexes(conn);
+        conn.setAutoCommit(false);
+        try {
+            int firstUser = nextId(conn, "users");
+            int firstAccount = nextId(conn, "accounts");
+            insertUsers(conn, firstUser);
+            long[] balances = insertAccounts(conn, firstUser, firstAccount, random);
+            long transactions = insertTransactions(conn, firstAccount, balances, random);
+            updateBalances(conn, firstAccount, balances);
+            conn.commit();
+
+            conn.setAutoCommit(true);
+            long t1 = System.nanoTime();
+            recreateIndexes(conn, indexes);
+            try (Statement st = conn.createStatement()) {
+                st.execute("ANALYZE");
+            }
+            long t2 = System.nanoTime();
+            return new LoadReport(spec.users(), spec.accounts(), transactions, t1 - t0, t2 - t1);
+        } catch (SQLException | RuntimeException e) {
+            if (!conn.getAutoCommit()) {
+                conn.rollback();
+            }
+            recreateIndexes(conn, indexes);
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void insertUsers(Connection conn, int firstUser) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO users(id, username, password, role) VALUES(?,?,?,?)")) {
+            Batch batch = new Batch(conn, ps);
+            for (int i = 0; i < spec.users(); i++) {
+                int id = firstUser + i;
+                ps.setInt(1, id);
+                ps.setString(2, "user" + id);
+                ps.setString(3, "pass");
+                ps.setString(4, Role.USER.name());
+                batch.add();
+            }
+            batch.flush();
+        }
+    }
+
+    private long[] insertAccounts(Connection conn, int firstUser, int firstAccount, Random random) throws SQLException {
+        long[] balances = new long[spec.accounts()];
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO accounts(id, user_id, name, iban, balance_cents, opening_cents) VALUES(?,?,?,?,0,?)")) {
+            Batch batch = new Batch(conn, ps);
+            for (int i = 0; i < balances.length; i++) {
+                int id = firstAccount + i;
+                ps.setInt(1, id);
+                ps.setInt(2, firstUser + i / spec.accountsPerUser());
+                ps.setString(3, "Account " + (i % spec.accountsPerUser() + 1));
+                ps.setString(4, String.format("BK%012d", id));
+                // opening balance 10..10 000.00
+                balances[i] = 1_000 + random.nextInt(999_001);
+                ps.setLong(5, balances[i]);
+                batch.add();
+            }
+            batch.flush();
+        }
+        return balances;
+    }
+
+    private long insertTransactions(Connection conn, int firstAccount, long[] balances, Random random) throws SQLException {
+        int accounts = balances.length;
+        int hot = Math.max(1, (int) (accounts * spec.hotAccountShare()));
+        // the history, one transaction per second after spec.start
+        long rows = spec.transactions();
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO transactions(type, from_account_id, to_account_id, amount_cents, reversed, created_at) "
+                        + "VALUES(?,?,?,?,0,?)")) {
+            Batch batch = new Batch(conn, ps);
+            for (long n = 0; n < spec.transactions(); n++) {
+                String createdAt = TIMESTAMP.format(spec.start().plusSeconds(n + 1));
+                int from = pick(random, accounts, hot);
+                int roll = random.nextInt(100);
+                long amount = 100 + random.nextInt(49_901);
+                TransactionType type = roll < 20 ? TransactionType.DEPOSIT
+                        : roll < 35 ? TransactionType.WITHDRAW
+                        : TransactionType.TRANSFER;
+                int to = -1;
+                if (type == TransactionType.TRANSFER) {
+                    to = pick(random, accounts, hot);
+                    if (to == from) {
+                        to = (from + 1) % accounts;
+                    }
+                }
+                if (type != TransactionType.DEPOSIT && balances[from] < amount) {
+                    // never overdraw: an account that cannot pay gets topped up instead
+                    type = TransactionType.DEPOSIT;
+                    to = -1;
+                }
+                switch (type) {
+                    case DEPOSIT -> {
+                        balances[from] += amount;
+                        bind(ps, type, -1, firstAccount + from, amount, createdAt);
+                    }
+                    case WITHDRAW -> {
+                        balances[from] -= amount;
+                        bind(ps, type, firstAccount + from, -1, amount, createdAt);
+                    }
+                    default -> {
+                        balances[from] -= amount;
+                        balances[to] += amount;
+                        bind(ps, type, firstAccount + from, firstAccount + to, amount, createdAt);
+                    }
+                }
+                batch.add();
+            }
+            batch.flush();
+        }
+        return rows;
+    }
+
+    private int pick(Random random, int accounts, int hot) {
+        if (hot < accounts && random.nextDouble() >= spec.hotTrafficShare()) {
+            return hot + random.nextInt(accounts - hot);
+        }
+        return random.nextInt(hot);
+    }
+
+    private static void bind(PreparedStatement ps, TransactionType type, int from, int to, long amount,
+                             String createdAt) throws SQLException {
+        ps.setString(1, type.name());
+        if (from < 0) ps.setNull(2, Types.INTEGER); else ps.setInt(2, from);
+        if (to < 0) ps.setNull(3, Types.INTEGER); else ps.setInt(3, to);
+        ps.setLong(4, amount);
+        ps.setString(5, createdAt);
+    }
+
+    private void updateBalances(Connection conn, int firstAccount, long[] balances) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE accounts SET balance_cents = ? WHERE id = ?")) {
+            Batch batch = new Batch(conn, ps);
+            for (int i = 0; i < balances.length; i++) {
+                ps.setLong(1, balances[i]);
+                ps.setInt(2, firstAccount + i);
+                batch.add();
+            }
+            batch.flush();
+        }
+    }
+
+    private static int nextId(Connection conn, String table) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            return rs.next() ? rs.getInt(1) : 1;
+        }
+    }
+
+    // maintaining the transactions indexes row by row dominates the load; rebuild them once at the end
+    private static List<String> dropTransactionIndexes(Connection conn) throws SQLException {
+        List<String> names = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        try (Statement st = conn.createStatement()) {
+            try (ResultSet rs = st.executeQuery(
+                    "SELECT name, sql FROM sqlite_master WHERE type = 'index' AND tbl_name = 'transactions' AND sql IS NOT NULL")) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                    indexes.add(rs.getString(2));
+                }
+            }
+            for (String name : names) {
+                st.execute("DROP INDEX " + name);
+            }
+        }
+        return indexes;
+    }
+
+    private static void recreateIndexes(Connection conn, List<String> indexes) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            for (String sql : indexes) {
+                st.execute(sql.replaceFirst("(?i)^CREATE INDEX (IF NOT EXISTS )?", "CREATE INDEX IF NOT EXISTS "));
+            }
+        }
+    }
+
+    /** addBatch with a flush every {@code batchSize} rows and a commit every {@code commitEvery}. */
+    private final class Batch {
+        private final Connection conn;
+        private final PreparedStatement ps;
+        private int pending;
+        private int uncommitted;
+
+        private Batch(Connection conn, PreparedStatement ps) {
+            this.conn = conn;
+            this.ps = ps;
+        }
+
+        void add() throws SQLException {
+            ps.addBatch();
+            uncommitted++;
+            if (++pending == spec.batchSize()) {
+                ps.executeBatch();
+                pending = 0;
+            }
+            if (uncommitted >= spec.commitEvery()) {
+                flush();
+                conn.commit();
+                uncommitted = 0;
+            }
+        }
+
+        void flush() throws SQLException {
+            if (pending > 0) {
+                ps.executeBatch();
+                pending = 0;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 1) {
+            System.err.println("usage: BulkLoader <db-file> [users] [accountsPerUser] [transactions] [seed]");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]).toAbsolutePath();
+        Spec spec = Spec.of(
+                args.length > 1 ? Integer.parseInt(args[1]) : 100_000,
+                args.length > 2 ? Integer.parseInt(args[2]) : 2,
+                args.length > 3 ? Long.parseLong(args[3]) : 1_000_000);
+        if (args.length > 4) {
+            spec = spec.withSeed(Long.parseLong(args[4]));
+        }
+        try (Connection conn = SqliteProfile.BULK_LOAD.toConfig().createConnection("jdbc:sqlite:" + file)) {
+            new SchemaMigrator(Migrations.ALL).migrate(conn);
+            LoadReport report = new BulkLoader(spec).load(conn);
+            System.out.println(report);
+        }
+    }
+}
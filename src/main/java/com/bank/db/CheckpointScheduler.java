@@ -0,0 +1,248 @@
+package com.bank.db;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves WAL checkpoints off the commit path. Every {@code interval} it looks at the WAL file and
+ * at the number of writes since the last tick:
+ * <ul>
+ *   <li>WAL at or above {@code truncateBytes}: TRUNCATE, which also shrinks the file back to zero;</li>
+ *   <li>WAL at or above {@code restartBytes} and grown since the last checkpoint: RESTART, so the
+ *       next writer reuses the file from the start instead of appending;</li>
+ *   <li>no writes during the last tick but some since the last checkpoint: PASSIVE, which never
+ *       waits for readers or writers.</li>
+ * </ul>
+ * RESTART and TRUNCATE wait for readers to leave old snapshots and keep new writers out while
+ * they run, so they are reserved for a WAL that idle periods did not keep small. The scheduler's
+ * connection waits at most {@link #BUSY_TIMEOUT_MILLIS} for them, and after a busy attempt (a long
+ * reader, e.g. a backup or an export) the next ones back off exponentially, up to
+ * {@link #MAX_BACKOFF_TICKS} ticks, running PASSIVE in between. Write connections keep SQLite's own
+ * auto-checkpoint only as a far-off backstop ({@link #AUTOCHECKPOINT_BACKSTOP_PAGES}).
+ */
+public class CheckpointScheduler implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(CheckpointScheduler.class.getName());
+
+    /** wal_autocheckpoint for write connections while the scheduler runs (≈128 MB of 4 KB pages). */
+    public static final int AUTOCHECKPOINT_BACKSTOP_PAGES = 32_768;
+    /** busy_timeout of the checkpoint connection: how long RESTART/TRUNCATE may stall writers. */
+    public static final int BUSY_TIMEOUT_MILLIS = 100;
+    /** Longest pause, in ticks, between RESTART/TRUNCATE attempts while readers keep them busy. */
+    public static final int MAX_BACKOFF_TICKS = 64;
+
+    public enum Mode { PASSIVE, RESTART, TRUNCATE }
+
+    public record Policy(Duration interval, long restartBytes, long truncateBytes) {
+        public Policy {
+            if (restartBytes <= 0 || truncateBytes < restartBytes) {
+                throw new IllegalArgumentException("Expected 0 < restartBytes <= truncateBytes");
+            }
+        }
+
+        /** Tick every 250 ms, RESTART from 8 MB, TRUNCATE from 64 MB. */
+        public static Policy defaults() {
+            return new Policy(Duration.ofMillis(250), 8L << 20, 64L << 20);
+        }
+    }
+
+    /** One {@code PRAGMA wal_checkpoint} call; frames are WAL pages. */
+    public record Result(Mode mode, boolean busy, int walFrames, int checkpointedFrames, long nanos) {
+    }
+
+    private final ConnectionPool.ConnectionFactory connections;
+    private final Path walFile;
+    // opened on the first checkpoint and kept; guarded by this
+    private Connection conn;
+    private final LongSupplier writes;
+    private final Policy policy;
+    private ScheduledExecutorService timer;
+
+    // touched by the timer thread and by explicit checkpoint() calls
+    private long writesAtLastTick;
+    private long writesAtLastCheckpoint;
+    private long walBytesAfterCheckpoint;
+    // consecutive busy RESTART/TRUNCATE attempts and the ticks left before the next one
+    private int busyStreak;
+    private long blockingSkips;
+
+    private long passive;
+    private long restart;
+    private long truncate;
+    private long busy;
+    private long framesCheckpointed;
+    private long lastDurationNanos;
+    private long maxDurationNanos;
+
+    /**
+     * @param connections opens the scheduler's own write connection, kept until {@link #close}; a
+     *                    checkpoint cannot run inside a transaction, and waiting for a slot in a
+     *                    shared pool would delay it, so it must not come from the writer's pool
+     * @param writes      monotonic count of writes, e.g. commands run by the {@link LedgerWriter}
+     */
+    public CheckpointScheduler(ConnectionPool.ConnectionFactory connections, Path databaseFile,
+                               LongSupplier writes, Policy policy) {
+        this.connections = connections;
+        this.walFile = databaseFile.resolveSibling(databaseFile.getFileName() + "-wal");
+        this.writes = writes;
+        this.policy = policy;
+        this.writesAtLastTick = writes.getAsLong();
+        this.writesAtLastCheckpoint = writesAtLastTick;
+    }
+
+    public synchronized void start() {
+        if (timer != null) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wal-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = policy.interval().toMillis();
+        timer.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "WAL checkpoint failed", e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Runs the checkpoint the policy calls for, if any. */
+    synchronized Result tick() throws SQLException {
+        long now = writes.getAsLong();
+        boolean idle = now == writesAtLastTick;
+        writesAtLastTick = now;
+        long walBytes = walBytes();
+        Mode mode;
+        if (walBytes >= policy.truncateBytes()) {
+            mode = Mode.TRUNCATE;
+        } else if (walBytes >= policy.restartBytes() && walBytes > walBytesAfterCheckpoint) {
+            mode = Mode.RESTART;
+        } else if (idle && now != writesAtLastCheckpoint) {
+            mode = Mode.PASSIVE;
+        } else {
+            return null;
+        }
+        if (mode != Mode.PASSIVE && blockingSkips > 0) {
+            // readers kept the last attempt busy: copy what can be copied without stalling writers
+            blockingSkips--;
+            if (now == writesAtLastCheckpoint) {
+                return null;
+            }
+            mode = Mode.PASSIVE;
+        }
+        Result result = checkpoint(mode);
+        if (mode != Mode.PASSIVE) {
+            busyStreak = result.busy() ? busyStreak + 1 : 0;
+            blockingSkips = result.busy() ? Math.min(1L << Math.min(busyStreak, 30), MAX_BACKOFF_TICKS) : 0;
+        }
+        return result;
+    }
+
+    public synchronized Result checkpoint(Mode mode) throws SQLException {
+        long writesBefore = writes.getAsLong();
+        long t0 = System.nanoTime();
+        Result result;
+        if (conn == null) {
+            conn = connections.open();
+            try (Statement st = conn.createStatement()) {
+                st.execute("PRAGMA busy_timeout = " + BUSY_TIMEOUT_MILLIS);
+            } catch (SQLException e) {
+                closeConnection();
+                throw e;
+            }
+        }
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("PRAGMA wal_checkpoint(" + mode.name() + ")")) {
+            rs.next();
+            result = new Result(mode, rs.getInt(1) != 0, rs.getInt(2), rs.getInt(3), System.nanoTime() - t0);
+        } catch (SQLException e) {
+            // reopen on the next checkpoint rather than keep a connection in an unknown state
+            closeConnection();
+            throw e;
+        }
+        switch (mode) {
+            case PASSIVE -> passive++;
+            case RESTART -> restart++;
+            case TRUNCATE -> truncate++;
+        }
+        if (result.busy()) {
+            busy++;
+        }
+        framesCheckpointed += Math.max(0, result.checkpointedFrames());
+        lastDurationNanos = result.nanos();
+        maxDurationNanos = Math.max(maxDurationNanos, result.nanos());
+        writesAtLastCheckpoint = writesBefore;
+        walBytesAfterCheckpoint = walBytes();
+        if (mode != Mode.PASSIVE) {
+            LOG.fine(() -> String.format("WAL %s checkpoint: %d/%d frames in %d ms", mode,
+                    result.checkpointedFrames(), result.walFrames(), result.nanos() / 1_000_000));
+        }
+        return result;
+    }
+
+    public synchronized CheckpointStats stats() {
+        return new CheckpointStats(passive, restart, truncate, busy, framesCheckpointed,
+                lastDurationNanos, maxDurationNanos, walBytes());
+    }
+
+    @Override
+    public void close() {
+        ScheduledExecutorService t;
+        synchronized (this) {
+            t = timer;
+            timer = null;
+        }
+        if (t != null) {
+            t.shutdown();
+            try {
+                t.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            closeConnection();
+        }
+    }
+
+    // caller holds the lock
+    private void closeConnection() {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            LOG.log(Level.FINE, "Failed to close checkpoint connection", e);
+        } finally {
+            conn = null;
+        }
+    }
+
+    private long walBytes() {
+        try {
+            return Files.size(walFile);
+        } catch (NoSuchFileException e) {
+            // removed by SQLite when the last connection closed
+            return 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stat " + walFile, e);
+        }
+    }
+}
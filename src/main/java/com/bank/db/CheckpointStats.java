@@ -0,0 +1,17 @@
+package com.bank.db;
+
+public record CheckpointStats(long passive,
+                              long restart,
+                              long truncate,
+                              long busy,
+                              long framesCheckpointed,
+                              long lastDurationNanos,
+                              long maxDurationNanos,
+                              long walBytes) {
+
+    public static final CheckpointStats NONE = new CheckpointStats(0, 0, 0, 0, 0, 0, 0, 0);
+
+    public long checkpoints() {
+        return passive + restart + truncate;
+    }
+}
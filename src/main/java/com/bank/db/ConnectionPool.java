@@ -0,0 +1,289 @@
+package com.bank.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of reusable JDBC connections. Borrowed connections are proxies:
+ * {@code close()} hands the physical connection back instead of closing it, and
+ * {@code prepareStatement(sql)} is served from the connection's {@link StatementCache}.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final PoolConfig config;
+    private final Semaphore permits;
+    // LIFO: the most recently returned (warmest) connection is reused first, stale ones sink to the tail
+    private final Deque<Entry> idle = new ArrayDeque<>();
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong destroyed = new AtomicLong();
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicLong statementEvictions = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(ConnectionFactory factory, PoolConfig config) {
+        this.factory = factory;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize(), true);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.borrowTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out waiting for a connection (max " + config.maxSize() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        try {
+            Entry entry = takeIdle();
+            if (entry == null) {
+                entry = open();
+                created.incrementAndGet();
+            }
+            borrowed.incrementAndGet();
+            totalWaitNanos.addAndGet(System.nanoTime() - start);
+            return lease(entry);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** Opens connections until {@code minIdle} are parked in the pool. */
+    public void warmUp() throws SQLException {
+        while (true) {
+            synchronized (idle) {
+                if (closed || idle.size() >= config.minIdle()) {
+                    return;
+                }
+            }
+            Entry entry = open();
+            created.incrementAndGet();
+            park(entry);
+        }
+    }
+
+    public PoolStats stats() {
+        int idleCount;
+        synchronized (idle) {
+            idleCount = idle.size();
+        }
+        return new PoolStats(
+                config.maxSize() - permits.availablePermits(),
+                idleCount,
+                created.get(),
+                destroyed.get(),
+                borrowed.get(),
+                timeouts.get(),
+                validationFailures.get(),
+                totalWaitNanos.get(),
+                statementHits.get(),
+                statementMisses.get(),
+                statementEvictions.get()
+        );
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (idle) {
+            while (!idle.isEmpty()) {
+                destroy(idle.pollFirst());
+            }
+        }
+    }
+
+    private Entry open() throws SQLException {
+        Connection raw = factory.open();
+        return new Entry(raw, new StatementCache(raw, config.statementCacheSize(),
+                statementHits, statementMisses, statementEvictions));
+    }
+
+    private Entry takeIdle() {
+        while (true) {
+            Entry entry;
+            synchronized (idle) {
+                evictExpired();
+                entry = idle.pollFirst();
+            }
+            if (entry == null) {
+                return null;
+            }
+            if (needsValidation(entry) && !isValid(entry)) {
+                validationFailures.incrementAndGet();
+                destroy(entry);
+                continue;
+            }
+            return entry;
+        }
+    }
+
+    private boolean needsValidation(Entry entry) {
+        return System.nanoTime() - entry.lastUsed > config.validationInterval().toNanos();
+    }
+
+    private boolean isValid(Entry entry) {
+        try {
+            return entry.raw.isValid(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // caller holds the idle lock
+    private void evictExpired() {
+        long now = System.nanoTime();
+        long limit = config.idleTimeout().toNanos();
+        while (idle.size() > config.minIdle()) {
+            Entry oldest = idle.peekLast();
+            if (oldest == null || now - oldest.lastUsed < limit) {
+                return;
+            }
+            destroy(idle.pollLast());
+        }
+    }
+
+    private void release(Entry entry) {
+        try {
+            boolean reusable = !closed && reset(entry);
+            if (reusable) {
+                park(entry);
+            } else {
+                destroy(entry);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void park(Entry entry) {
+        entry.lastUsed = System.nanoTime();
+        synchronized (idle) {
+            if (closed) {
+                destroy(entry);
+                return;
+            }
+            idle.offerFirst(entry);
+            evictExpired();
+        }
+    }
+
+    private boolean reset(Entry entry) {
+        try {
+            if (entry.raw.isClosed()) {
+                return false;
+            }
+            if (!entry.raw.getAutoCommit()) {
+                entry.raw.rollback();
+                entry.raw.setAutoCommit(true);
+            }
+            entry.raw.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destroy(Entry entry) {
+        destroyed.incrementAndGet();
+        entry.statements.closeAll();
+        try {
+            entry.raw.close();
+        } catch (SQLException ignored) {
+            // the connection is being discarded anyway
+        }
+    }
+
+    private Connection lease(Entry entry) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new Lease(entry));
+    }
+
+    private static final class Entry {
+        private final Connection raw;
+        private final StatementCache statements;
+        private volatile long lastUsed = System.nanoTime();
+
+        private Entry(Connection raw, StatementCache statements) {
+            this.raw = raw;
+            this.statements = statements;
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+        private final Entry entry;
+        private boolean returned;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        release(entry);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || entry.raw.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled[" + entry.raw + "]";
+                }
+                default -> {
+                    if (returned) {
+                        throw new SQLException("Connection already returned to the pool");
+                    }
+                }
+            }
+            if (method.getName().equals("prepareStatement") && args.length == 1) {
+                return entry.statements.prepare((Connection) proxy, (String) args[0]);
+            }
+            try {
+                return method.invoke(entry.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,76 +1,376 @@
 package com.bank.db;
 
 import com.bank.model.Role;
+import org.sqlite.SQLiteConfig;
 
-import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.*;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Logger;
 
 public class Database {
-    private static final Path DB_PATH = Paths.get(System.getProperty("user.dir"), "bank.db");
-    private static final String URL = "jdbc:sqlite:" + DB_PATH.toAbsolutePath();
+    private static final Logger LOG = Logger.getLogger(Database.class.getName());
 
-    static {
-        init();
+    private static final Duration SNAPSHOT_INTERVAL = Duration.ofMinutes(5);
+
+    private static volatile Instance current;
+    private static CompletableFuture<Void> opening;
+    private static boolean shutdownHookInstalled;
+
+    /** Opens the database described by {@code config}: migrates, seeds an empty schema and warms the pools. */
+    public static synchronized void open(DatabaseConfig config) {
+        checkNotOpen(config);
+        install(Instance.start(config));
+    }
+
+    /**
+     * Same as {@link #open} but on a background thread, so the UI can paint while SQLite starts.
+     * DAO calls made before the future completes wait for it instead of opening a second time.
+     */
+    public static synchronized CompletableFuture<Void> openAsync(DatabaseConfig config) {
+        checkNotOpen(config);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        opening = future;
+        Thread init = new Thread(() -> {
+            try {
+                Instance instance = Instance.start(config);
+                synchronized (Database.class) {
+                    install(instance);
+                }
+                future.complete(null);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }, "db-init");
+        init.setDaemon(true);
+        init.start();
+        return future;
+    }
+
+    /** Completes once the database is usable, starting it from system properties if nobody has. */
+    public static synchronized CompletableFuture<Void> ready() {
+        if (current != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (opening != null) {
+            return opening;
+        }
+        return openAsync(DatabaseConfig.fromSystemProperties());
+    }
+
+    public static void close() {
+        CompletableFuture<Void> pending;
+        synchronized (Database.class) {
+            pending = opening;
+        }
+        if (pending != null) {
+            // let a background open finish so its pools are not leaked
+            pending.exceptionally(e -> null).join();
+        }
+        synchronized (Database.class) {
+            opening = null;
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+
+    public static boolean isOpen() {
+        return current != null;
     }
 
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL);
+        return instance().pool.getConnection();
+    }
+
+    /** Read-only, query_only connection; in WAL mode these never block (or wait for) the writer. */
+    public static Connection getReadConnection() throws SQLException {
+        return instance().readPool.getConnection();
+    }
+
+    /**
+     * Read-only connection outside the pools for long readers such as {@link BackupService}, so they
+     * do not hold a pool slot. Unlike pooled read connections it is not {@code query_only}, which
+     * would also forbid {@code VACUUM INTO}. The caller closes it.
+     */
+    static Connection openUnpooledRead() throws SQLException {
+        Connection conn = Instance.openRead(instance().config);
+        try (Statement st = conn.createStatement()) {
+            st.execute("PRAGMA query_only = 0");
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    /** All ledger mutations go through this single writer so concurrent callers share commits. */
+    public static LedgerWriter writer() {
+        return instance().writer;
+    }
+
+    public static DatabaseConfig config() {
+        return instance().config;
+    }
+
+    public static SqliteProfile profile() {
+        return instance().config.profile();
+    }
+
+    public static PoolStats poolStats() {
+        return instance().pool.stats();
+    }
+
+    public static PoolStats readPoolStats() {
+        return instance().readPool.stats();
+    }
+
+    /** {@link CheckpointStats#NONE} for in-memory databases, which have no WAL. */
+    public static CheckpointStats checkpointStats() {
+        CheckpointScheduler checkpoints = instance().checkpoints;
+        return checkpoints == null ? CheckpointStats.NONE : checkpoints.stats();
+    }
+
+    private static void checkNotOpen(DatabaseConfig config) {
+        if (current != null || (opening != null && !opening.isDone())) {
+            throw new IllegalStateException("Database is already open or opening, cannot open " + config.url());
+        }
+    }
+
+    // caller holds the class lock
+    private static void install(Instance instance) {
+        current = instance;
+        if (!shutdownHookInstalled) {
+            Runtime.getRuntime().addShutdownHook(new Thread(Database::close, "db-shutdown"));
+            shutdownHookInstalled = true;
+        }
     }
 
-    private static void init() {
+    // callers that never opened the database explicitly get the one configured by system properties
+    private static Instance instance() {
+        Instance instance = current;
+        if (instance != null) {
+            return instance;
+        }
+        CompletableFuture<Void> pending;
+        synchronized (Database.class) {
+            if (current != null) {
+                return current;
+            }
+            pending = opening;
+            if (pending == null) {
+                open(DatabaseConfig.fromSystemProperties());
+                return current;
+            }
+        }
         try {
-            if (DB_PATH.getParent() != null) {
-                Files.createDirectories(DB_PATH.getParent());
-            }
-
-            try (Connection conn = getConnection()) {
-                try (Statement st = conn.createStatement()) {
-                    st.execute("PRAGMA foreign_keys = ON");
-                    st.execute("""
-                            CREATE TABLE IF NOT EXISTS users (
-                                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                                username TEXT UNIQUE NOT NULL,
-                                password TEXT NOT NULL,
-                                role TEXT NOT NULL
-                            )
-                            """);
-                    st.execute("""
-                            CREATE TABLE IF NOT EXISTS accounts (
-                                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                                user_id INTEGER NOT NULL,
-                                name TEXT NOT NULL,
-                                iban TEXT NOT NULL,
-                                balance DECIMAL(12,2) NOT NULL DEFAULT 0,
-                                FOREIGN KEY(user_id) REFERENCES users(id) ON DELETE CASCADE
-                            )
-                            """);
-                    st.execute("""
-                            CREATE TABLE IF NOT EXISTS transactions (
-                                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                                type TEXT NOT NULL,
-                                from_account_id INTEGER NULL,
-                                to_account_id INTEGER NULL,
-                                amount DECIMAL(12,2) NOT NULL,
-                                reversed INTEGER NOT NULL DEFAULT 0,
-                                created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
-                                FOREIGN KEY(from_account_id) REFERENCES accounts(id) ON DELETE SET NULL,
-                                FOREIGN KEY(to_account_id) REFERENCES accounts(id) ON DELETE SET NULL
-                            )
-                            """);
-                }
-
-                if (isEmpty(conn)) {
-                    seed(conn);
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to init database", e);
+            pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException("Failed to init database", e.getCause());
+        }
+        instance = current;
+        if (instance == null) {
+            throw new IllegalStateException("Database was closed");
+        }
+        return instance;
+    }
+
+    private static final class Instance {
+        private final DatabaseConfig config;
+        private final Connection keepAlive;
+        private final ConnectionPool pool;
+        private final ConnectionPool readPool;
+        private final LedgerWriter writer;
+        private final CheckpointScheduler checkpoints;
+        private AutoCloseable archiving;
+        private Path snapshotFile;
+        private LedgerBalances balances;
+        private AutoCloseable snapshots;
+
+        private Instance(DatabaseConfig config, Connection keepAlive) {
+            this.config = config;
+            this.keepAlive = keepAlive;
+            this.pool = new ConnectionPool(() -> openWrite(config), config.writePool());
+            this.readPool = new ConnectionPool(() -> openRead(config), config.readPool());
+            this.writer = new LedgerWriter(pool::getConnection, 256);
+            // its own connection, outside the write pool: a checkpoint never waits for a writer's slot
+            this.checkpoints = config.inMemory() ? null : new CheckpointScheduler(() -> openWrite(config),
+                    config.file(), () -> writer.stats().commands(), CheckpointScheduler.Policy.defaults());
+        }
+
+        private static Instance start(DatabaseConfig config) {
+            Instance instance = null;
+            long t0 = System.nanoTime();
+            try {
+                if (config.file() != null && config.file().getParent() != null) {
+                    Files.createDirectories(config.file().getParent());
+                }
+                // a shared-cache in-memory database disappears with its last connection
+                Connection keepAlive = config.inMemory() ? openWrite(config) : null;
+                instance = new Instance(config, keepAlive);
+
+                long migrate;
+                long seed;
+                try (Connection conn = instance.pool.getConnection()) {
+                    long t1 = System.nanoTime();
+                    new SchemaMigrator(Migrations.ALL).migrate(conn);
+                    long t2 = System.nanoTime();
+                    if (isEmpty(conn)) {
+                        seed(conn);
+                    }
+                    migrate = t2 - t1;
+                    seed = System.nanoTime() - t2;
+                }
+                long t3 = System.nanoTime();
+                instance.pool.warmUp();
+                instance.readPool.warmUp();
+                try (Connection conn = instance.readPool.getConnection()) {
+                    // pulls the schema and the users pages into the read connection before the first login
+                    isEmpty(conn);
+                }
+                if (instance.checkpoints != null) {
+                    instance.checkpoints.start();
+                }
+                instance.startBalances();
+                if (config.archiveAge() != null) {
+                    instance.archiving = new ArchiveJob(instance.writer, config.archiveAge(), 5_000, Clock.systemUTC())
+                            .schedule(Duration.ofDays(1));
+                }
+                long t4 = System.nanoTime();
+                LOG.info(String.format("Database ready in %d ms (migrate %d ms, seed %d ms, warm-up %d ms): %s",
+                        millis(t4 - t0), millis(migrate), millis(seed), millis(t4 - t3), config.url()));
+                return instance;
+            } catch (Exception e) {
+                if (instance != null) {
+                    instance.close();
+                }
+                throw new RuntimeException("Failed to init database", e);
+            }
+        }
+
+        private static long millis(long nanos) {
+            return nanos / 1_000_000;
+        }
+
+        private static Connection openWrite(DatabaseConfig config) throws SQLException {
+            SQLiteConfig sqlite = config.profile().toConfig();
+            if (config.inMemory()) {
+                // shared cache uses table locks that busy_timeout does not cover; keep readers lock-free
+                sqlite.setReadUncommitted(true);
+            }
+            Connection conn = sqlite.createConnection(config.url());
+            try {
+                if (!config.inMemory()) {
+                    // checkpoints are the scheduler's job; SQLite's own stays as a backstop only
+                    try (Statement st = conn.createStatement()) {
+                        st.execute("PRAGMA wal_autocheckpoint = " + CheckpointScheduler.AUTOCHECKPOINT_BACKSTOP_PAGES);
+                    }
+                }
+                if (config.archiveAge() != null) {
+                    Archive.attach(conn, config, true);
+                }
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+            return conn;
+        }
+
+        private static Connection openRead(DatabaseConfig config) throws SQLException {
+            Connection conn = config.profile().openReadOnly(config.url());
+            try {
+                if (config.inMemory()) {
+                    try (Statement st = conn.createStatement()) {
+                        st.execute("PRAGMA read_uncommitted = 1");
+                    }
+                }
+                if (config.archiveAge() != null) {
+                    Archive.attach(conn, config, false);
+                }
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+            return conn;
+        }
+
+        // snapshot + ledger tail; a stored balance that disagrees with the ledger is reported, not fixed
+        private void startBalances() throws SQLException {
+            snapshotFile = BalanceSnapshot.pathFor(config).orElse(null);
+            if (snapshotFile == null) {
+                return;
+            }
+            try (Connection conn = readPool.getConnection()) {
+                balances = LedgerBalances.open(conn, snapshotFile);
+                List<Integer> drift = balances.mismatches(conn);
+                if (!drift.isEmpty()) {
+                    LOG.warning("Account balances differ from the ledger for accounts " + drift);
+                }
+            }
+            snapshots = balances.scheduleSnapshots(readPool::getConnection, snapshotFile, SNAPSHOT_INTERVAL);
+        }
+
+        private void close() {
+            if (archiving != null) {
+                try {
+                    archiving.close();
+                } catch (Exception e) {
+                    LOG.warning("Failed to stop archiving: " + e);
+                }
+            }
+            if (snapshots != null) {
+                try {
+                    snapshots.close();
+                } catch (Exception e) {
+                    LOG.warning("Failed to stop balance snapshots: " + e);
+                }
+            }
+            if (checkpoints != null) {
+                checkpoints.close();
+            }
+            writer.close();
+            if (snapshots != null) {
+                // the next start replays only what comes after this
+                try (Connection conn = readPool.getConnection()) {
+                    balances.catchUp(conn);
+                    balances.snapshot().write(snapshotFile);
+                } catch (Exception e) {
+                    LOG.warning("Failed to write balance snapshot: " + e);
+                }
+            }
+            readPool.close();
+            pool.close();
+            try {
+                if (keepAlive != null) {
+                    keepAlive.close();
+                }
+                if (config.temporary()) {
+                    Path dir = config.file().getParent();
+                    String archive = Archive.locationFor(config);
+                    for (String suffix : new String[]{"", "-wal", "-shm"}) {
+                        Files.deleteIfExists(Paths.get(config.file() + suffix));
+                        Files.deleteIfExists(Paths.get(archive + suffix));
+                    }
+                    if (snapshotFile != null) {
+                        Files.deleteIfExists(snapshotFile);
+                    }
+                    Files.deleteIfExists(dir);
+                }
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to close database", e);
+            }
         }
     }
 
@@ -83,16 +383,16 @@ public class Database {
 
     private static void seed(Connection conn) throws SQLException {
         List<SeedUser> users = Arrays.asList(
-                new SeedUser("admin", "admin", Role.ADMIN, new BigDecimal[]{}, new String[]{}), // админ без счетов
-                new SeedUser("user", "pass", Role.USER, new BigDecimal[]{new BigDecimal("1250.00"), new BigDecimal("3200.00")}, new String[]{"Daily Card", "Savings Vault"}),
-                new SeedUser("alice", "pass", Role.USER, new BigDecimal[]{new BigDecimal("980.00"), new BigDecimal("2100.00")}, new String[]{"Spending", "Travel"}),
-                new SeedUser("bob", "pass", Role.USER, new BigDecimal[]{new BigDecimal("1500.00"), new BigDecimal("8200.00")}, new String[]{"Checking", "Invest"})
+                new SeedUser("admin", "admin", Role.ADMIN, new long[]{}, new String[]{}), // админ без счетов
+                new SeedUser("user", "pass", Role.USER, new long[]{125000L, 320000L}, new String[]{"Daily Card", "Savings Vault"}),
+                new SeedUser("alice", "pass", Role.USER, new long[]{98000L, 210000L}, new String[]{"Spending", "Travel"}),
+                new SeedUser("bob", "pass", Role.USER, new long[]{150000L, 820000L}, new String[]{"Checking", "Invest"})
         );
 
         try (PreparedStatement insertUser = conn.prepareStatement(
                 "INSERT INTO users(username, password, role) VALUES(?,?,?)", Statement.RETURN_GENERATED_KEYS);
              PreparedStatement insertAccount = conn.prepareStatement(
-                     "INSERT INTO accounts(user_id, name, iban, balance) VALUES(?,?,?,?)")) {
+                     "INSERT INTO accounts(user_id, name, iban, balance_cents, opening_cents) VALUES(?,?,?,?,?)")) {
 
             for (SeedUser u : users) {
                 insertUser.setString(1, u.username());
@@ -102,11 +402,13 @@ public class Database {
                 try (ResultSet keys = insertUser.getGeneratedKeys()) {
                     if (keys.next()) {
                         int userId = keys.getInt(1);
-                        for (int i = 0; i < u.balances().length; i++) {
+                        for (int i = 0; i < u.balanceCents().length; i++) {
                             insertAccount.setInt(1, userId);
                             insertAccount.setString(2, u.names()[i]);
                             insertAccount.setString(3, fakeIban(u.username(), i));
-                            insertAccount.setBigDecimal(4, u.balances()[i]);
+                            insertAccount.setLong(4, u.balanceCents()[i]);
+                            // the opening balance lives on the account, not as a journal entry
+                            insertAccount.setLong(5, u.balanceCents()[i]);
                             insertAccount.executeUpdate();
                         }
                     }
@@ -120,7 +422,7 @@ public class Database {
         return "BK" + username.substring(0, Math.min(4, username.length())).toUpperCase() + index + suffix;
     }
 
-    private record SeedUser(String username, String password, Role role, BigDecimal[] balances, String[] names) {
+    private record SeedUser(String username, String password, Role role, long[] balanceCents, String[] names) {
     }
 }
 
@@ -0,0 +1,80 @@
+package com.bank.db;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Where the database lives and how it is tuned. {@code file} is {@code null} for in-memory
+ * databases; {@code temporary} files are deleted when the database is closed. Transactions older
+ * than {@code archiveAge} are moved to the {@link Archive} daily; {@code null} turns that off.
+ */
+public record DatabaseConfig(String url,
+                             Path file,
+                             boolean temporary,
+                             SqliteProfile profile,
+                             PoolConfig writePool,
+                             PoolConfig readPool,
+                             Duration archiveAge) {
+
+    public static final String LOCATION_PROPERTY = "bank.db.location";
+    public static final String ARCHIVE_PROPERTY = "bank.archive.days";
+
+    public static DatabaseConfig file(Path path) {
+        Path absolute = path.toAbsolutePath();
+        return new DatabaseConfig("jdbc:sqlite:" + absolute, absolute, false,
+                SqliteProfile.fromSystemProperty(), PoolConfig.writes(), PoolConfig.reads(), null);
+    }
+
+    public static DatabaseConfig tempFile() {
+        try {
+            Path dir = Files.createTempDirectory("bank-db");
+            Path path = dir.resolve("bank.db");
+            return new DatabaseConfig("jdbc:sqlite:" + path, path, true,
+                    SqliteProfile.fromSystemProperty(), PoolConfig.writes(), PoolConfig.reads(), null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create temp database", e);
+        }
+    }
+
+    /** Shared-cache in-memory database; lives while the Database holding it is open. */
+    public static DatabaseConfig inMemory(String name) {
+        return new DatabaseConfig("jdbc:sqlite:file:" + name + "?mode=memory&cache=shared", null, false,
+                SqliteProfile.fromSystemProperty(), PoolConfig.writes(), PoolConfig.reads(), null);
+    }
+
+    /**
+     * {@code -Dbank.db.location=memory|temp|<path>}; defaults to {@code bank.db} in the working directory.
+     */
+    public static DatabaseConfig fromSystemProperties() {
+        String location = System.getProperty(LOCATION_PROPERTY);
+        DatabaseConfig config;
+        if (location == null || location.isBlank()) {
+            config = file(Paths.get(System.getProperty("user.dir"), "bank.db"));
+        } else {
+            config = switch (location.trim()) {
+                case "memory" -> inMemory("bank-" + UUID.randomUUID());
+                case "temp" -> tempFile();
+                default -> file(Paths.get(location.trim()));
+            };
+        }
+        String days = System.getProperty(ARCHIVE_PROPERTY);
+        return days == null || days.isBlank() ? config : config.withArchiveAge(Duration.ofDays(Long.parseLong(days.trim())));
+    }
+
+    public boolean inMemory() {
+        return file == null;
+    }
+
+    public DatabaseConfig withProfile(SqliteProfile profile) {
+        return new DatabaseConfig(url, file, temporary, profile, writePool, readPool, archiveAge);
+    }
+
+    public DatabaseConfig withArchiveAge(Duration archiveAge) {
+        return new DatabaseConfig(url, file, temporary, profile, writePool, readPool, archiveAge);
+    }
+}
@@ -0,0 +1,214 @@
+package com.bank.db;
+
+import com.bank.model.Money;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory balances derived from each account's {@code opening_cents} and the transactions
+ * table (hot and {@link Archive}d entries): every entry moves money, and a reversed entry is
+ * undone. {@link #open} starts from the latest {@link BalanceSnapshot} and replays only entries
+ * after it (plus reversals of older ones, found through the partial index on reversed rows);
+ * without a snapshot it replays the whole table once and writes one. {@link Database} opens one
+ * at startup for file databases and checks it against the accounts table.
+ */
+public class LedgerBalances {
+    private static final Logger LOG = Logger.getLogger(LedgerBalances.class.getName());
+    private static final BalanceSnapshot EMPTY = new BalanceSnapshot(0, 0, new long[0], new long[0]);
+
+    private long[] balances;
+    private long lastTransactionId;
+    private int lastAccountId;
+    private long[] reversedIds;
+
+    private LedgerBalances(BalanceSnapshot snapshot) {
+        this.balances = snapshot.balances().clone();
+        this.lastTransactionId = snapshot.lastTransactionId();
+        this.lastAccountId = snapshot.lastAccountId();
+        this.reversedIds = snapshot.reversedIds().clone();
+    }
+
+    public static LedgerBalances replayAll(Connection conn) throws SQLException {
+        LedgerBalances engine = new LedgerBalances(EMPTY);
+        engine.catchUp(conn);
+        return engine;
+    }
+
+    public static LedgerBalances restore(Connection conn, BalanceSnapshot snapshot) throws SQLException {
+        LedgerBalances engine = new LedgerBalances(snapshot);
+        engine.catchUp(conn);
+        return engine;
+    }
+
+    /** Snapshot if usable, otherwise full replay; then refreshes the snapshot file. */
+    public static LedgerBalances open(Connection conn, Path snapshotFile) throws SQLException {
+        long t0 = System.nanoTime();
+        BalanceSnapshot snapshot = BalanceSnapshot.read(snapshotFile).orElse(null);
+        LedgerBalances engine = new LedgerBalances(snapshot != null ? snapshot : EMPTY);
+        int replayed = engine.catchUp(conn);
+        engine.snapshot().write(snapshotFile);
+        LOG.info(String.format("Balances ready in %d ms (%s, %d entries replayed, last id %d)",
+                (System.nanoTime() - t0) / 1_000_000, snapshot != null ? "snapshot" : "full replay",
+                replayed, engine.lastTransactionId()));
+        return engine;
+    }
+
+    /**
+     * Applies opening balances of new accounts, entries added and reversals made since the last
+     * call. All queries run in one read transaction so they see the same database state. Returns
+     * the number of entries applied.
+     */
+    public synchronized int catchUp(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT id, opening_cents FROM accounts WHERE id > ? ORDER BY id")) {
+                ps.setInt(1, lastAccountId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        lastAccountId = rs.getInt(1);
+                        apply(0, lastAccountId, rs.getLong(2));
+                    }
+                }
+            }
+            int applied = 0;
+            long last = lastTransactionId;
+            String ledger = Archive.ledger(conn);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT id, from_account_id, to_account_id, amount_cents FROM " + ledger + " WHERE id > ? ORDER BY id")) {
+                ps.setLong(1, last);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        last = rs.getLong(1);
+                        apply(rs.getInt(2), rs.getInt(3), rs.getLong(4));
+                        applied++;
+                    }
+                }
+            }
+            lastTransactionId = last;
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT id, from_account_id, to_account_id, amount_cents FROM " + ledger
+                            + " WHERE reversed = 1 AND id <= ? ORDER BY id")) {
+                ps.setLong(1, last);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        long id = rs.getLong(1);
+                        if (Arrays.binarySearch(reversedIds, id) < 0) {
+                            // undo: money goes back from "to" to "from"
+                            apply(rs.getInt(3), rs.getInt(2), rs.getLong(4));
+                            addReversed(id);
+                        }
+                    }
+                }
+            }
+            conn.commit();
+            return applied;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    public synchronized Money balance(int accountId) {
+        return Money.ofCents(accountId < balances.length ? balances[accountId] : 0);
+    }
+
+    public synchronized long lastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public synchronized BalanceSnapshot snapshot() {
+        return new BalanceSnapshot(lastTransactionId, lastAccountId, balances.clone(), reversedIds.clone());
+    }
+
+    /**
+     * Catches up, then returns the ids of accounts whose stored balance differs from the ledger.
+     * Only meaningful while nothing writes, e.g. at startup.
+     */
+    public synchronized List<Integer> mismatches(Connection conn) throws SQLException {
+        catchUp(conn);
+        List<Integer> ids = new ArrayList<>();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id, balance_cents FROM accounts ORDER BY id")) {
+            while (rs.next()) {
+                int id = rs.getInt(1);
+                if ((id < balances.length ? balances[id] : 0) != rs.getLong(2)) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Catches up and rewrites the snapshot every {@code interval}; close the result to stop.
+     * Connections come from {@code connections} (e.g. {@code Database::getReadConnection}).
+     */
+    public AutoCloseable scheduleSnapshots(ConnectionPool.ConnectionFactory connections, Path file, Duration interval) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "balance-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try (Connection conn = connections.open()) {
+                catchUp(conn);
+                snapshot().write(file);
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "Balance snapshot failed", e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        return () -> {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    // "from"/"to" of 0 are deposits and withdrawals (NULL reads as 0)
+    private void apply(int from, int to, long cents) {
+        if (from > 0) {
+            ensure(from);
+            balances[from] -= cents;
+        }
+        if (to > 0) {
+            ensure(to);
+            balances[to] += cents;
+        }
+    }
+
+    private void ensure(int accountId) {
+        if (accountId >= balances.length) {
+            balances = Arrays.copyOf(balances, Math.max(accountId + 1, balances.length * 2));
+        }
+    }
+
+    private void addReversed(long id) {
+        int at = -(Arrays.binarySearch(reversedIds, id) + 1);
+        long[] grown = new long[reversedIds.length + 1];
+        System.arraycopy(reversedIds, 0, grown, 0, at);
+        grown[at] = id;
+        System.arraycopy(reversedIds, at, grown, at + 1, reversedIds.length - at);
+        reversedIds = grown;
+    }
+}
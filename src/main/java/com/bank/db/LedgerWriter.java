@@ -0,0 +1,181 @@
+package com.bank.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single writer thread for all ledger mutations. Whatever is queued when the writer wakes up
+ * runs in one SQLite transaction with one commit; each command gets its own savepoint so a
+ * failing command only rolls back itself and fails only its own future.
+ */
+public class LedgerWriter implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface WriteCommand<T> {
+        T apply(Connection conn) throws SQLException;
+    }
+
+    private final ConnectionPool.ConnectionFactory connections;
+    private final int maxBatch;
+    private final BlockingQueue<Pending<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong commands = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+
+    public LedgerWriter(ConnectionPool.ConnectionFactory connections, int maxBatch) {
+        this.connections = connections;
+        this.maxBatch = maxBatch;
+        this.thread = new Thread(this::run, "ledger-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public <T> CompletableFuture<T> submit(WriteCommand<T> command) {
+        if (!running) {
+            throw new IllegalStateException("Ledger writer is closed");
+        }
+        if (Thread.currentThread() == thread) {
+            throw new IllegalStateException("Nested ledger write: use the connection passed to the command");
+        }
+        Pending<T> pending = new Pending<>(command);
+        queue.add(pending);
+        if (!running && queue.remove(pending)) {
+            // closed while we were queueing and nobody took it: the writer will never run it
+            pending.future.completeExceptionally(new IllegalStateException("Ledger writer is closed"));
+        }
+        return pending.future;
+    }
+
+    /** Submits and waits; runtime exceptions thrown by the command reach the caller unchanged. */
+    public <T> T execute(WriteCommand<T> command) {
+        try {
+            return submit(command).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw new RuntimeException("Ledger write failed", cause);
+        }
+    }
+
+    public WriterStats stats() {
+        return new WriterStats(batches.get(), commands.get(), failed.get(), largestBatch.get(), queue.size());
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Pending<?>> batch = new ArrayList<>(maxBatch);
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                try {
+                    process(batch);
+                } finally {
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+            // whatever is still queued will never run; submit() removes its own entry if it sees
+            // running == false, so each leftover is failed exactly once, here or there
+            List<Pending<?>> leftovers = new ArrayList<>();
+            queue.drainTo(leftovers);
+            for (Pending<?> pending : leftovers) {
+                pending.future.completeExceptionally(new IllegalStateException("Ledger writer is closed"));
+            }
+        }
+    }
+
+    private void process(List<Pending<?>> batch) {
+        batches.incrementAndGet();
+        commands.addAndGet(batch.size());
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+        try (Connection conn = connections.open()) {
+            conn.setAutoCommit(false);
+            for (Pending<?> pending : batch) {
+                Savepoint savepoint = conn.setSavepoint();
+                try {
+                    pending.apply(conn);
+                    conn.releaseSavepoint(savepoint);
+                } catch (Throwable e) {
+                    // errors included: one broken command must not take the writer thread down
+                    pending.error = e;
+                    conn.rollback(savepoint);
+                    conn.releaseSavepoint(savepoint);
+                }
+            }
+            conn.commit();
+        } catch (Throwable e) {
+            // the commit (or the connection) failed: nothing in this batch is durable
+            for (Pending<?> pending : batch) {
+                if (pending.error == null) {
+                    pending.error = e;
+                }
+            }
+        } finally {
+            for (Pending<?> pending : batch) {
+                if (pending.error != null) {
+                    failed.incrementAndGet();
+                }
+                pending.complete();
+            }
+        }
+    }
+
+    private static final class Pending<T> {
+        private final WriteCommand<T> command;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Throwable error;
+
+        private Pending(WriteCommand<T> command) {
+            this.command = command;
+        }
+
+        private void apply(Connection conn) throws SQLException {
+            result = command.apply(conn);
+        }
+
+        private void complete() {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.bank.db;
+
+/** Outcome of a {@link BulkLoader} run; opening balances are on the accounts, not in {@code transactions}. */
+public record LoadReport(int users,
+                         int accounts,
+                         long transactions,
+                         long loadNanos,
+                         long indexNanos) {
+
+    public long rows() {
+        return users + accounts + transactions;
+    }
+
+    public double rowsPerSecond() {
+        return loadNanos == 0 ? 0 : rows() / (loadNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d users, %d accounts, %d transactions in %d ms (%.0f rows/sec), indexes %d ms",
+                users, accounts, transactions, loadNanos / 1_000_000, rowsPerSecond(), indexNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,10 @@
+package com.bank.db;
+
+import java.util.List;
+
+public record Migration(int version, String description, List<String> statements) {
+
+    public Migration(int version, String description, String... statements) {
+        this(version, description, List.of(statements));
+    }
+}
@@ -0,0 +1,33 @@
+package com.bank.db;
+
+import java.time.Duration;
+
+public record PoolConfig(int maxSize,
+                         int minIdle,
+                         Duration borrowTimeout,
+                         Duration idleTimeout,
+                         Duration validationInterval,
+                         int statementCacheSize) {
+
+    public PoolConfig {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be >= 1");
+        }
+        if (minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("minIdle must be in [0, maxSize]");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("statementCacheSize must be >= 0");
+        }
+    }
+
+    /** Writes are funnelled through the ledger writer, so only it and startup need a connection. */
+    public static PoolConfig writes() {
+        return new PoolConfig(2, 1, Duration.ofSeconds(10), Duration.ofMinutes(5), Duration.ofSeconds(30), 64);
+    }
+
+    public static PoolConfig reads() {
+        int size = Math.max(4, Runtime.getRuntime().availableProcessors());
+        return new PoolConfig(size, 2, Duration.ofSeconds(10), Duration.ofMinutes(5), Duration.ofSeconds(30), 64);
+    }
+}
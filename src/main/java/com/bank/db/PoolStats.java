@@ -0,0 +1,23 @@
+package com.bank.db;
+
+public record PoolStats(int active,
+                        int idle,
+                        long created,
+                        long destroyed,
+                        long borrowed,
+                        long timeouts,
+                        long validationFailures,
+                        long totalWaitNanos,
+                        long statementHits,
+                        long statementMisses,
+                        long statementEvictions) {
+
+    public double averageWaitMicros() {
+        return borrowed == 0 ? 0 : totalWaitNanos / 1_000.0 / borrowed;
+    }
+
+    public double statementHitRatio() {
+        long lookups = statementHits + statementMisses;
+        return lookups == 0 ? 0 : (double) statementHits / lookups;
+    }
+}
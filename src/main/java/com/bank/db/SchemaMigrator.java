@@ -0,0 +1,93 @@
+package com.bank.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Applies pending {@link Migration}s in version order. All pending migrations run in one
+ * transaction, so a failure leaves the schema at the version it started from. Foreign keys are
+ * switched off while they run (table rebuilds would otherwise cascade) and checked before commit.
+ */
+public class SchemaMigrator {
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(List<Migration> migrations) {
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() <= migrations.get(i - 1).version()) {
+                throw new IllegalArgumentException("Migrations must be in strictly increasing version order");
+            }
+        }
+        this.migrations = migrations;
+    }
+
+    public int migrate(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("""
+                    CREATE TABLE IF NOT EXISTS schema_version (
+                        version INTEGER PRIMARY KEY,
+                        description TEXT NOT NULL,
+                        applied_at DATETIME DEFAULT CURRENT_TIMESTAMP
+                    )
+                    """);
+        }
+
+        int current = currentVersion(conn);
+        List<Migration> pending = migrations.stream()
+                .filter(m -> m.version() > current)
+                .toList();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        // PRAGMA foreign_keys is a no-op inside a transaction, so it is toggled around it
+        setForeignKeys(conn, false);
+        conn.setAutoCommit(false);
+        try (Statement st = conn.createStatement();
+             PreparedStatement record = conn.prepareStatement(
+                     "INSERT INTO schema_version(version, description) VALUES(?,?)")) {
+            for (Migration m : pending) {
+                for (String sql : m.statements()) {
+                    st.execute(sql);
+                }
+                record.setInt(1, m.version());
+                record.setString(2, m.description());
+                record.executeUpdate();
+            }
+            try (ResultSet violations = st.executeQuery("PRAGMA foreign_key_check")) {
+                if (violations.next()) {
+                    throw new SQLException("Migration left a foreign key violation in table " + violations.getString(1));
+                }
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+            setForeignKeys(conn, true);
+        }
+        return pending.size();
+    }
+
+    private static void setForeignKeys(Connection conn, boolean on) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("PRAGMA foreign_keys = " + (on ? "ON" : "OFF"));
+        }
+    }
+
+    public int currentVersion(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    public int latestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).version();
+    }
+}
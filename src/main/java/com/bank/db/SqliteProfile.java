@@ -0,0 +1,98 @@
+package com.bank.db;
+
+import org.sqlite.SQLiteConfig;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Named sets of per-connection PRAGMAs. Every connection the pool opens gets the
+ * active profile applied, so DAOs never see a connection without WAL or foreign keys.
+ */
+public enum SqliteProfile {
+    DURABLE("durable", SQLiteConfig.SynchronousMode.FULL, -8_000, 0L, SQLiteConfig.TempStore.DEFAULT, 5_000),
+    BALANCED("balanced", SQLiteConfig.SynchronousMode.NORMAL, -16_000, 64L << 20, SQLiteConfig.TempStore.MEMORY, 5_000),
+    BULK_LOAD("bulk-load", SQLiteConfig.SynchronousMode.OFF, -64_000, 256L << 20, SQLiteConfig.TempStore.MEMORY, 30_000);
+
+    public static final String PROPERTY = "bank.db.profile";
+
+    private final String key;
+    private final SQLiteConfig.SynchronousMode synchronous;
+    private final int cacheSizeKib;
+    private final long mmapSize;
+    private final SQLiteConfig.TempStore tempStore;
+    private final int busyTimeoutMillis;
+
+    SqliteProfile(String key, SQLiteConfig.SynchronousMode synchronous, int cacheSizeKib, long mmapSize,
+                  SQLiteConfig.TempStore tempStore, int busyTimeoutMillis) {
+        this.key = key;
+        this.synchronous = synchronous;
+        this.cacheSizeKib = cacheSizeKib;
+        this.mmapSize = mmapSize;
+        this.tempStore = tempStore;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public SQLiteConfig toConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.enforceForeignKeys(true);
+        config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        config.setSynchronous(synchronous);
+        // negative cache_size is in KiB rather than pages
+        config.setCacheSize(cacheSizeKib);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(mmapSize));
+        config.setTempStore(tempStore);
+        config.setBusyTimeout(busyTimeoutMillis);
+        // take the write lock at BEGIN: a deferred read-then-write upgrade fails with SQLITE_BUSY without waiting
+        config.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+        return config;
+    }
+
+    /**
+     * Same tuning for the read pool, opened with SQLITE_OPEN_READONLY. journal_mode is left out:
+     * WAL is persistent in the file and a read-only handle cannot switch it anyway.
+     */
+    public SQLiteConfig toReadOnlyConfig() {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(true);
+        config.enforceForeignKeys(true);
+        config.setCacheSize(cacheSizeKib);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, Long.toString(mmapSize));
+        config.setTempStore(tempStore);
+        config.setBusyTimeout(busyTimeoutMillis);
+        return config;
+    }
+
+    public Connection openReadOnly(String url) throws SQLException {
+        Connection conn = toReadOnlyConfig().createConnection(url);
+        try (Statement st = conn.createStatement()) {
+            st.execute("PRAGMA query_only = 1");
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    public static SqliteProfile fromKey(String key) {
+        String normalized = key.trim().toLowerCase(Locale.ROOT);
+        for (SqliteProfile profile : values()) {
+            if (profile.key.equals(normalized) || profile.name().equalsIgnoreCase(normalized)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown SQLite profile: " + key);
+    }
+
+    /** Profile chosen at startup via {@code -Dbank.db.profile=durable|balanced|bulk-load}, balanced by default. */
+    public static SqliteProfile fromSystemProperty() {
+        String value = System.getProperty(PROPERTY);
+        return value == null || value.isBlank() ? BALANCED : fromKey(value);
+    }
+}
@@ -0,0 +1,174 @@
+package com.bank.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for one physical connection. A connection is only
+ * ever used by one thread at a time, so the cache itself is not synchronized. A statement
+ * goes back to the cache with its parameters, batch and tuning (fetch size, max rows, query
+ * timeout, max field size) reset to what it was prepared with.
+ */
+final class StatementCache {
+    private final Connection raw;
+    private final int capacity;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+    private final LinkedHashMap<String, Cached> statements;
+
+    StatementCache(Connection raw, int capacity, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.raw = raw;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                if (size() <= StatementCache.this.capacity) {
+                    return false;
+                }
+                StatementCache.this.evictions.incrementAndGet();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    PreparedStatement prepare(Connection owner, String sql) throws SQLException {
+        if (capacity == 0) {
+            return raw.prepareStatement(sql);
+        }
+        Cached cached = statements.get(sql);
+        if (cached != null && !cached.inUse) {
+            hits.incrementAndGet();
+        } else if (cached != null) {
+            // same SQL still open on this connection (nested use): hand out a private statement
+            misses.incrementAndGet();
+            return raw.prepareStatement(sql);
+        } else {
+            misses.incrementAndGet();
+            cached = new Cached(raw.prepareStatement(sql));
+            statements.put(sql, cached);
+        }
+        cached.inUse = true;
+        return cached.lease(owner);
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    void closeAll() {
+        for (Cached cached : statements.values()) {
+            cached.evict();
+        }
+        statements.clear();
+    }
+
+    private static final class Cached {
+        private final PreparedStatement statement;
+        private final int fetchSize;
+        private final long maxRows;
+        private final int queryTimeout;
+        private final int maxFieldSize;
+        private boolean inUse;
+        private boolean evicted;
+
+        private Cached(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.fetchSize = statement.getFetchSize();
+            this.maxRows = statement.getLargeMaxRows();
+            this.queryTimeout = statement.getQueryTimeout();
+            this.maxFieldSize = statement.getMaxFieldSize();
+        }
+
+        private PreparedStatement lease(Connection owner) {
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    new Handle(this, owner));
+        }
+
+        private void giveBack() throws SQLException {
+            inUse = false;
+            if (evicted) {
+                statement.close();
+            } else {
+                // whatever the last caller tuned must not leak into the next one
+                statement.clearParameters();
+                statement.clearBatch();
+                statement.setFetchSize(fetchSize);
+                statement.setLargeMaxRows(maxRows);
+                statement.setQueryTimeout(queryTimeout);
+                statement.setMaxFieldSize(maxFieldSize);
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    statement.close();
+                } catch (SQLException ignored) {
+                    // evicted statements are dropped either way
+                }
+            }
+        }
+    }
+
+    private static final class Handle implements InvocationHandler {
+        private final Cached cached;
+        private final Connection owner;
+        private boolean closed;
+
+        private Handle(Cached cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!closed) {
+                        closed = true;
+                        cached.giveBack();
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return closed;
+                }
+                case "getConnection" -> {
+                    return owner;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    if (closed) {
+                        throw new SQLException("Statement is closed");
+                    }
+                }
+            }
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.bank.db;
+
+public record WriterStats(long batches, long commands, long failed, int largestBatch, int queued) {
+
+    public double averageBatchSize() {
+        return batches == 0 ? 0 : (double) commands / batches;
+    }
+}
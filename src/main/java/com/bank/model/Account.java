@@ -1,16 +1,14 @@
 package com.bank.model;
 
-import java.math.BigDecimal;
-
 public class Account {
     private int id;
     private int userId;
     private String name;
     private String iban;
-    private BigDecimal balance;
+    private Money balance;
     private String owner;
 
-    public Account(int id, int userId, String name, String iban, BigDecimal balance, String owner) {
+    public Account(int id, int userId, String name, String iban, Money balance, String owner) {
         this.id = id;
         this.userId = userId;
         this.name = name;
@@ -35,11 +33,11 @@ public class Account {
         return iban;
     }
 
-    public BigDecimal getBalance() {
+    public Money getBalance() {
         return balance;
     }
 
-    public void setBalance(BigDecimal balance) {
+    public void setBalance(Money balance) {
         this.balance = balance;
     }
 
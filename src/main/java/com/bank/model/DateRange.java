@@ -0,0 +1,23 @@
+package com.bank.model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/** Half-open {@code [from, to)} interval of creation times (UTC, as stored); a {@code null} bound is open. */
+public record DateRange(LocalDateTime from, LocalDateTime to) {
+    public static final DateRange ALL = new DateRange(null, null);
+
+    public DateRange {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец периода раньше начала");
+        }
+    }
+
+    public static DateRange lastDays(int days) {
+        return new DateRange(LocalDateTime.now(ZoneOffset.UTC).minusDays(days), null);
+    }
+
+    public boolean contains(LocalDateTime time) {
+        return (from == null || !time.isBefore(from)) && (to == null || time.isBefore(to));
+    }
+}
@@ -0,0 +1,35 @@
+package com.bank.model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** A journal entry to be written; {@code null} marks the cash side of a deposit or withdrawal. */
+public record LedgerEntry(TransactionType type, Integer fromAccountId, Integer toAccountId, Money amount) {
+
+    public static LedgerEntry deposit(int accountId, Money amount) {
+        return new LedgerEntry(TransactionType.DEPOSIT, null, accountId, amount);
+    }
+
+    public static LedgerEntry withdraw(int accountId, Money amount) {
+        return new LedgerEntry(TransactionType.WITHDRAW, accountId, null, amount);
+    }
+
+    public static LedgerEntry transfer(int fromId, int toId, Money amount) {
+        return new LedgerEntry(TransactionType.TRANSFER, fromId, toId, amount);
+    }
+
+    /** Net balance change per account if all {@code entries} are applied, in first-seen order. */
+    public static Map<Integer, Money> balanceChanges(List<LedgerEntry> entries) {
+        Map<Integer, Money> deltas = new LinkedHashMap<>();
+        for (LedgerEntry entry : entries) {
+            if (entry.fromAccountId() != null) {
+                deltas.merge(entry.fromAccountId(), entry.amount().negate(), Money::plus);
+            }
+            if (entry.toAccountId() != null) {
+                deltas.merge(entry.toAccountId(), entry.amount(), Money::plus);
+            }
+        }
+        return deltas;
+    }
+}
@@ -1,6 +1,5 @@
 package com.bank.model;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public class Transaction {
@@ -8,14 +7,14 @@ public class Transaction {
     private TransactionType type;
     private Integer fromAccountId;
     private Integer toAccountId;
-    private BigDecimal amount;
+    private Money amount;
     private boolean reversed;
     private LocalDateTime createdAt;
     private String fromLabel;
     private String toLabel;
 
     public Transaction(int id, TransactionType type, Integer fromAccountId, Integer toAccountId,
-                       BigDecimal amount, boolean reversed, LocalDateTime createdAt,
+                       Money amount, boolean reversed, LocalDateTime createdAt,
                        String fromLabel, String toLabel) {
         this.id = id;
         this.type = type;
@@ -44,7 +43,7 @@ public class Transaction {
         return toAccountId;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
@@ -0,0 +1,14 @@
+package com.bank.model;
+
+import java.util.List;
+
+/**
+ * One page of the journal, newest first. {@code nextBefore} is the cursor for the following
+ * page (the id of the last item) or {@code null} when nothing older is left.
+ */
+public record TransactionPage(List<Transaction> items, Integer nextBefore) {
+
+    public boolean hasMore() {
+        return nextBefore != null;
+    }
+}
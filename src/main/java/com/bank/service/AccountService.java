@@ -1,16 +1,24 @@
 package com.bank.service;
 
 import com.bank.dao.AccountDao;
-import com.bank.dao.TransactionDao;
+import com.bank.dao.AccountRepository;
 import com.bank.model.Account;
+import com.bank.model.Money;
 import com.bank.model.User;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 public class AccountService {
-    private final AccountDao accountDao = new AccountDao();
-    private final TransactionDao transactionDao = new TransactionDao();
+    // balance changes journal themselves in the same commit, so no TransactionRepository here
+    private final AccountRepository accountDao;
+
+    public AccountService() {
+        this(new AccountDao());
+    }
+
+    public AccountService(AccountRepository accountDao) {
+        this.accountDao = accountDao;
+    }
 
     public List<Account> getAccounts(User user) {
         return accountDao.findByUserId(user.getId());
@@ -20,42 +28,28 @@ public class AccountService {
         return accountDao.findAllExceptUser(user.getId());
     }
 
-    public Account deposit(int accountId, BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public Account deposit(int accountId, Money amount) {
+        if (!amount.isPositive()) {
             throw new IllegalArgumentException("Сумма должна быть > 0");
         }
-        var account = accountDao.findById(accountId)
-                .orElseThrow(() -> new IllegalArgumentException("Счет не найден"));
-        account.setBalance(account.getBalance().add(amount));
-        accountDao.updateBalance(accountId, account.getBalance());
-        transactionDao.insertDeposit(accountId, amount);
-        return account;
+        return accountDao.deposit(accountId, amount);
     }
 
-    public Account withdraw(int accountId, BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public Account withdraw(int accountId, Money amount) {
+        if (!amount.isPositive()) {
             throw new IllegalArgumentException("Сумма должна быть > 0");
         }
-        var account = accountDao.findById(accountId)
-                .orElseThrow(() -> new IllegalArgumentException("Счет не найден"));
-        if (account.getBalance().compareTo(amount) < 0) {
-            throw new IllegalArgumentException("Недостаточно средств");
-        }
-        account.setBalance(account.getBalance().subtract(amount));
-        accountDao.updateBalance(accountId, account.getBalance());
-        transactionDao.insertWithdraw(accountId, amount);
-        return account;
+        return accountDao.withdraw(accountId, amount);
     }
 
-    public void transfer(int fromId, int toId, BigDecimal amount) {
+    public void transfer(int fromId, int toId, Money amount) {
         if (fromId == toId) {
             throw new IllegalArgumentException("Нельзя перевести на свой счет");
         }
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!amount.isPositive()) {
             throw new IllegalArgumentException("Сумма должна быть > 0");
         }
         accountDao.transfer(fromId, toId, amount);
-        transactionDao.insertTransfer(fromId, toId, amount);
     }
 }
 
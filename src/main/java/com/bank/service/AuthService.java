@@ -1,14 +1,23 @@
 package com.bank.service;
 
 import com.bank.dao.UserDao;
+import com.bank.dao.UserRepository;
 import com.bank.model.User;
 
 import java.util.Optional;
 
 public class AuthService {
-    private final UserDao userDao = new UserDao();
+    private final UserRepository userDao;
     private User currentUser;
 
+    public AuthService() {
+        this(new UserDao());
+    }
+
+    public AuthService(UserRepository userDao) {
+        this.userDao = userDao;
+    }
+
     public Optional<User> login(String username, String password) {
         Optional<User> found = userDao.findByCredentials(username, password);
         found.ifPresent(u -> currentUser = u);
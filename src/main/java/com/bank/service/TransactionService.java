@@ -1,62 +1,57 @@
 package com.bank.service;
 
-import com.bank.dao.AccountDao;
 import com.bank.dao.TransactionDao;
-import com.bank.model.Account;
+import com.bank.dao.TransactionRepository;
+import com.bank.model.DateRange;
 import com.bank.model.Transaction;
-import com.bank.model.TransactionType;
+import com.bank.model.TransactionPage;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 public class TransactionService {
-    private final TransactionDao transactionDao = new TransactionDao();
-    private final AccountDao accountDao = new AccountDao();
+    private final TransactionRepository transactionDao;
+
+    public TransactionService() {
+        this(new TransactionDao());
+    }
+
+    public TransactionService(TransactionRepository transactionDao) {
+        this.transactionDao = transactionDao;
+    }
 
     public List<Transaction> list() {
         return transactionDao.findAll();
     }
 
-    public void rollback(int id) {
-        Transaction tx = transactionDao.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Транзакция не найдена"));
-        if (tx.isReversed()) {
-            throw new IllegalStateException("Уже откатано");
-        }
-
-        switch (tx.getType()) {
-            case DEPOSIT -> rollbackDeposit(tx);
-            case WITHDRAW -> rollbackWithdraw(tx);
-            case TRANSFER -> rollbackTransfer(tx);
-            default -> throw new IllegalStateException("Неизвестный тип");
+    /** Newest-first postings of one account within {@code range}. */
+    public List<Transaction> history(int accountId, DateRange range, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным");
         }
-        transactionDao.markReversed(id);
+        return transactionDao.findByAccount(accountId, range, limit);
     }
 
-    private void rollbackDeposit(Transaction tx) {
-        Account acc = accountDao.findById(tx.getToAccountId())
-                .orElseThrow(() -> new IllegalArgumentException("Счет не найден"));
-        BigDecimal newBalance = acc.getBalance().subtract(tx.getAmount());
-        accountDao.updateBalance(acc.getId(), newBalance);
+    /** Newest-first page of the journal; pass the previous page's {@code nextBefore} to continue. */
+    public TransactionPage page(Integer beforeId, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным");
+        }
+        // one extra row tells whether an older page exists without a COUNT(*)
+        List<Transaction> rows = transactionDao.findPage(beforeId, size + 1);
+        if (rows.size() <= size) {
+            return new TransactionPage(rows, null);
+        }
+        List<Transaction> items = rows.subList(0, size);
+        return new TransactionPage(List.copyOf(items), items.get(size - 1).getId());
     }
 
-    private void rollbackWithdraw(Transaction tx) {
-        Account acc = accountDao.findById(tx.getFromAccountId())
-                .orElseThrow(() -> new IllegalArgumentException("Счет не найден"));
-        BigDecimal newBalance = acc.getBalance().add(tx.getAmount());
-        accountDao.updateBalance(acc.getId(), newBalance);
+    /** Reverses one entry: balances and the reversed flag change in one commit. */
+    public void rollback(int id) {
+        transactionDao.reverse(id);
     }
 
-    private void rollbackTransfer(Transaction tx) {
-        Account from = accountDao.findById(tx.getFromAccountId())
-                .orElseThrow(() -> new IllegalArgumentException("Счет отправителя не найден"));
-        Account to = accountDao.findById(tx.getToAccountId())
-                .orElseThrow(() -> new IllegalArgumentException("Счет получателя не найден"));
-        if (to.getBalance().compareTo(tx.getAmount()) < 0) {
-            throw new IllegalArgumentException("Недостаточно средств для отката");
-        }
-        accountDao.updateBalance(from.getId(), from.getBalance().add(tx.getAmount()));
-        accountDao.updateBalance(to.getId(), to.getBalance().subtract(tx.getAmount()));
+    /** Reverses all {@code ids} in one commit; if any of them cannot be reversed, none is. */
+    public void rollbackAll(List<Integer> ids) {
+        transactionDao.reverseAll(ids);
     }
 }
-
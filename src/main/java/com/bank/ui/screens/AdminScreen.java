@@ -2,7 +2,9 @@ package com.bank.ui.screens;
 
 import com.bank.dao.UserDao;
 import com.bank.model.Account;
+import com.bank.model.Money;
 import com.bank.model.Transaction;
+import com.bank.model.TransactionPage;
 import com.bank.model.User;
 import com.bank.service.AccountService;
 import com.bank.service.TransactionService;
@@ -14,14 +16,16 @@ import com.bank.ui.components.SectionHeader;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class AdminScreen extends JPanel {
+    static final int PAGE_SIZE = 200;
+
     private final AccountService accountService;
     private final TransactionService transactionService = new TransactionService();
     private final UserDao userDao = new UserDao();
@@ -31,6 +35,8 @@ public class AdminScreen extends JPanel {
     private final DefaultTableModel txModel;
     private final JTextField adjustField = new JTextField("100.00", 8);
     private final JLabel feedback = new JLabel(" ");
+    private final PrimaryButton moreTx = new PrimaryButton("Показать еще");
+    private Integer nextTxBefore;
     private final Map<Integer, User> usersById = new HashMap<>();
     private final NumberFormat currency = NumberFormat.getCurrencyInstance();
     private final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
@@ -72,7 +78,7 @@ public class AdminScreen extends JPanel {
             }
         };
         txTable = new JTable(txModel);
-        txTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        txTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         txTable.setBackground(Palette.SURFACE);
         txTable.setForeground(Palette.TEXT_PRIMARY);
         txTable.setGridColor(Palette.PURPLE_START);
@@ -93,9 +99,12 @@ public class AdminScreen extends JPanel {
         CardPanel txActions = new CardPanel(new FlowLayout(FlowLayout.LEFT, 8, 8));
         PrimaryButton rollback = new PrimaryButton("Откатить транзакцию");
         rollback.addActionListener(e -> onRollback());
+        moreTx.addActionListener(e -> loadMoreTransactions());
+        moreTx.setEnabled(false);
         JLabel note = new JLabel("Доступны депозит/снятие/перевод, статус \"откатано\" — уже отменено");
         note.setForeground(Palette.TEXT_MUTED);
         txActions.add(rollback);
+        txActions.add(moreTx);
         txActions.add(note);
 
         JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, scroll, txScroll);
@@ -120,12 +129,12 @@ public class AdminScreen extends JPanel {
         }
         int accountId = (Integer) table.getValueAt(row, 4); // hidden id
         try {
-            BigDecimal delta = new BigDecimal(adjustField.getText());
-            if (delta.compareTo(BigDecimal.ZERO) > 0) {
+            Money delta = Money.of(adjustField.getText());
+            if (delta.isPositive()) {
                 accountService.deposit(accountId, delta);
                 feedback.setText("Пополнение выполнено");
             } else {
-                accountService.withdraw(accountId, delta.abs());
+                accountService.withdraw(accountId, delta.negate());
                 feedback.setText("Списание выполнено");
             }
             load();
@@ -149,7 +158,7 @@ public class AdminScreen extends JPanel {
                         u.getUsername(),
                         acc.getName(),
                         acc.getIban(),
-                        currency.format(acc.getBalance()),
+                        currency.format(acc.getBalance().toBigDecimal()),
                         acc.getId()
                 });
             }
@@ -165,31 +174,49 @@ public class AdminScreen extends JPanel {
         }
     }
 
+    // reloads from the newest entry, keeping at least as many rows as were on screen
     private void loadTransactions() {
+        int shown = Math.max(PAGE_SIZE, txModel.getRowCount());
         txModel.setRowCount(0);
-        for (Transaction tx : transactionService.list()) {
+        appendTransactions(transactionService.page(null, shown));
+    }
+
+    private void loadMoreTransactions() {
+        if (nextTxBefore != null) {
+            appendTransactions(transactionService.page(nextTxBefore, PAGE_SIZE));
+        }
+    }
+
+    private void appendTransactions(TransactionPage page) {
+        for (Transaction tx : page.items()) {
             txModel.addRow(new Object[]{
                     tx.getId(),
                     tx.getType().name(),
                     tx.getFromLabel(),
                     tx.getToLabel(),
-                    currency.format(tx.getAmount()),
+                    currency.format(tx.getAmount().toBigDecimal()),
                     dtf.format(tx.getCreatedAt()),
                     tx.isReversed() ? "откатано" : "активно"
             });
         }
+        nextTxBefore = page.nextBefore();
+        moreTx.setEnabled(page.hasMore());
     }
 
     private void onRollback() {
-        int row = txTable.getSelectedRow();
-        if (row < 0) {
+        int[] rows = txTable.getSelectedRows();
+        if (rows.length == 0) {
             feedback.setText("Выберите транзакцию");
             return;
         }
-        int txId = (Integer) txTable.getValueAt(row, 0);
+        List<Integer> ids = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            ids.add((Integer) txTable.getValueAt(row, 0));
+        }
         try {
-            transactionService.rollback(txId);
-            feedback.setText("Транзакция откатана");
+            // several selected rows are reversed together: all of them or none
+            transactionService.rollbackAll(ids);
+            feedback.setText(ids.size() == 1 ? "Транзакция откатана" : "Откатано транзакций: " + ids.size());
             loadTransactions();
             load();
         } catch (Exception ex) {
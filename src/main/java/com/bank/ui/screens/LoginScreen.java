@@ -13,6 +13,7 @@ public class LoginScreen extends GradientPanel {
     private final JTextField userField = new JTextField(16);
     private final JPasswordField passField = new JPasswordField(16);
     private final JLabel errorLabel = new JLabel(" ");
+    private final PrimaryButton loginBtn = new PrimaryButton("Войти");
 
     public LoginScreen(BiConsumer<String, String> onLogin) {
         setLayout(new GridBagLayout());
@@ -37,7 +38,6 @@ public class LoginScreen extends GradientPanel {
         styleField(userField);
         styleField(passField);
 
-        PrimaryButton loginBtn = new PrimaryButton("Войти");
         loginBtn.setAlignmentX(Component.CENTER_ALIGNMENT);
         loginBtn.setPreferredSize(new Dimension(400, 52));
         loginBtn.addActionListener(e -> onLogin.accept(userField.getText().trim(), new String(passField.getPassword())));
@@ -69,6 +69,11 @@ public class LoginScreen extends GradientPanel {
         errorLabel.setText(text);
     }
 
+    /** Disables the login button while a login is waiting for the database. */
+    public void setBusy(boolean busy) {
+        loginBtn.setEnabled(!busy);
+    }
+
     public void clearError() {
         errorLabel.setText(" ");
     }
@@ -1,7 +1,9 @@
 package com.bank.ui.screens;
 
 import com.bank.dao.AccountDao;
+import com.bank.db.Database;
 import com.bank.model.Account;
+import com.bank.model.Money;
 import com.bank.model.Role;
 import com.bank.model.User;
 import com.bank.service.AccountService;
@@ -12,8 +14,8 @@ import com.bank.ui.components.PrimaryButton;
 
 import javax.swing.*;
 import java.awt.*;
-import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class MainFrame extends JFrame {
     private final AuthService authService = new AuthService();
@@ -85,6 +87,20 @@ public class MainFrame extends JFrame {
 
     private void handleLogin(String username, String password) {
         loginScreen.clearError();
+        CompletableFuture<Void> ready = Database.ready();
+        if (!ready.isDone()) {
+            loginScreen.showError("Подключение к базе…");
+            loginScreen.setBusy(true);
+            ready.whenComplete((v, err) -> SwingUtilities.invokeLater(() -> {
+                loginScreen.setBusy(false);
+                handleLogin(username, password);
+            }));
+            return;
+        }
+        if (ready.isCompletedExceptionally()) {
+            loginScreen.showError("База данных недоступна");
+            return;
+        }
         authService.login(username, password).ifPresentOrElse(user -> {
             nav.setVisible(true);
             adminBtn.setVisible(user.getRole() == Role.ADMIN);
@@ -99,10 +115,10 @@ public class MainFrame extends JFrame {
 
     private void refreshDashboard() {
         List<Account> accounts = accountDao.findAllExceptUser(-1);
-        BigDecimal total = accounts.stream()
+        Money total = accounts.stream()
                 .map(Account::getBalance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        dashboardScreen.refresh(accounts.size(), total);
+                .reduce(Money.ZERO, Money::plus);
+        dashboardScreen.refresh(accounts.size(), total.toBigDecimal());
     }
 
     private void logout() {
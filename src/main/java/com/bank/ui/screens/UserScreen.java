@@ -1,21 +1,29 @@
 package com.bank.ui.screens;
 
 import com.bank.model.Account;
+import com.bank.model.DateRange;
+import com.bank.model.Money;
+import com.bank.model.Transaction;
 import com.bank.model.User;
 import com.bank.service.AccountService;
+import com.bank.service.TransactionService;
 import com.bank.ui.Palette;
 import com.bank.ui.components.CardPanel;
 import com.bank.ui.components.PrimaryButton;
 import com.bank.ui.components.SectionHeader;
 
 import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.math.BigDecimal;
 import java.text.NumberFormat;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 public class UserScreen extends JPanel {
+    static final int HISTORY_SIZE = 50;
+
     private final AccountService accountService;
+    private final TransactionService transactionService = new TransactionService();
     private User user;
     private final DefaultListModel<Account> accountModel = new DefaultListModel<>();
     private final JList<Account> accountList = new JList<>(accountModel);
@@ -25,6 +33,8 @@ public class UserScreen extends JPanel {
     private final JLabel feedback = new JLabel(" ");
     private final NumberFormat currency = NumberFormat.getCurrencyInstance();
     private final DefaultComboBoxModel<Account> targetModel = new DefaultComboBoxModel<>();
+    private final DefaultTableModel historyModel;
+    private final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
     public UserScreen(AccountService accountService) {
         this.accountService = accountService;
@@ -48,9 +58,33 @@ public class UserScreen extends JPanel {
         accountList.setFixedCellHeight(110);
         accountList.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
 
+        accountList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                loadHistory();
+            }
+        });
+
         JScrollPane scroll = new JScrollPane(accountList);
         scroll.setBorder(BorderFactory.createEmptyBorder());
 
+        String[] historyCols = {"Дата", "Тип", "Контрагент", "Сумма", "Статус"};
+        historyModel = new DefaultTableModel(historyCols, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable history = new JTable(historyModel);
+        history.setBackground(Palette.SURFACE);
+        history.setForeground(Palette.TEXT_PRIMARY);
+        history.setGridColor(Palette.PURPLE_START);
+        JScrollPane historyScroll = new JScrollPane(history);
+        historyScroll.setBorder(BorderFactory.createEmptyBorder());
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, scroll, historyScroll);
+        split.setResizeWeight(0.6);
+        split.setBorder(BorderFactory.createEmptyBorder());
+
         transferTargets.setBackground(Palette.SURFACE);
         transferTargets.setForeground(Palette.TEXT_PRIMARY);
         transferTargets.setModel(targetModel);
@@ -66,7 +100,7 @@ public class UserScreen extends JPanel {
         actions.add(feedback);
 
         add(top, BorderLayout.NORTH);
-        add(scroll, BorderLayout.CENTER);
+        add(split, BorderLayout.CENTER);
         add(actions, BorderLayout.EAST);
     }
 
@@ -123,7 +157,7 @@ public class UserScreen extends JPanel {
             return;
         }
         try {
-            BigDecimal amount = new BigDecimal(amountField.getText());
+            Money amount = Money.of(amountField.getText());
             if (isTopUp) {
                 accountService.deposit(selected.getId(), amount);
                 feedback.setText("Баланс пополнен");
@@ -145,7 +179,7 @@ public class UserScreen extends JPanel {
             return;
         }
         try {
-            BigDecimal amount = new BigDecimal(transferAmountField.getText());
+            Money amount = Money.of(transferAmountField.getText());
             accountService.transfer(from.getId(), to.getId(), amount);
             feedback.setText("Перевод выполнен");
             reload();
@@ -174,6 +208,23 @@ public class UserScreen extends JPanel {
         }
     }
 
+    // runs on every selection change: one indexed query for the newest HISTORY_SIZE postings
+    private void loadHistory() {
+        historyModel.setRowCount(0);
+        Account selected = accountList.getSelectedValue();
+        if (selected == null) return;
+        for (Transaction tx : transactionService.history(selected.getId(), DateRange.ALL, HISTORY_SIZE)) {
+            boolean outgoing = tx.getFromAccountId() != null && tx.getFromAccountId() == selected.getId();
+            historyModel.addRow(new Object[]{
+                    dtf.format(tx.getCreatedAt()),
+                    tx.getType().name(),
+                    outgoing ? tx.getToLabel() : tx.getFromLabel(),
+                    (outgoing ? "-" : "+") + currency.format(tx.getAmount().toBigDecimal()),
+                    tx.isReversed() ? "откатано" : "активно"
+            });
+        }
+    }
+
     private String maskIban(String iban) {
         if (iban == null || iban.length() <= 4) return iban;
         String last = iban.substring(iban.length() - 4);
@@ -203,7 +254,7 @@ public class UserScreen extends JPanel {
             iban.setForeground(Palette.TEXT_MUTED);
             iban.setFont(iban.getFont().deriveFont(Font.PLAIN, 12f));
 
-            JLabel balance = new JLabel(currency.format(acc.getBalance()));
+            JLabel balance = new JLabel(currency.format(acc.getBalance().toBigDecimal()));
             balance.setForeground(Palette.TEXT_PRIMARY);
             balance.setFont(balance.getFont().deriveFont(Font.BOLD, 20f));
             balance.setHorizontalAlignment(SwingConstants.RIGHT);
@@ -0,0 +1,77 @@
+package com.bank.bench;
+
+import com.bank.db.BalanceSnapshot;
+import com.bank.db.BulkLoader;
+import com.bank.db.LedgerBalances;
+import com.bank.db.Migrations;
+import com.bank.db.SchemaMigrator;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Startup time of {@link LedgerBalances} as a function of history size: full replay of the
+ * transactions table versus snapshot + tail, where the tail is the last {@code tail} entries.
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;deps&gt; com.bank.bench.StartupBenchmark [tail] [sizes...]
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tail = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int[] sizes = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{100_000, 500_000, 2_000_000};
+        System.out.printf("%10s %10s %14s %16s %14s%n", "history", "tail", "full ms", "snapshot ms", "snapshot KB");
+        for (int size : sizes) {
+            Path dir = Files.createTempDirectory("bank-startup");
+            Path db = dir.resolve("bank.db");
+            Path snapshotFile = dir.resolve("bank.db.balances");
+            try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + db)) {
+                new SchemaMigrator(Migrations.ALL).migrate(conn);
+                new BulkLoader(BulkLoader.Spec.of(Math.max(size / 40, 10), 2, size)).load(conn);
+                // snapshot as of everything but the last `tail` entries
+                try (Statement st = conn.createStatement()) {
+                    st.execute("CREATE TEMP TABLE tail AS SELECT * FROM transactions ORDER BY id DESC LIMIT " + tail);
+                    st.execute("DELETE FROM transactions WHERE id IN (SELECT id FROM temp.tail)");
+                    LedgerBalances.replayAll(conn).snapshot().write(snapshotFile);
+                    st.execute("INSERT INTO transactions SELECT * FROM temp.tail");
+                    st.execute("DROP TABLE temp.tail");
+                }
+
+                long full = bestOf(() -> LedgerBalances.replayAll(conn));
+                long fromSnapshot = bestOf(() -> LedgerBalances.restore(conn,
+                        BalanceSnapshot.read(snapshotFile).orElseThrow()));
+                System.out.printf("%10d %10d %14.1f %16.1f %14d%n", size, tail,
+                        full / 1e6, fromSnapshot / 1e6, Files.size(snapshotFile) / 1024);
+            } finally {
+                try (var files = Files.list(dir)) {
+                    for (Path f : files.toList()) {
+                        Files.delete(f);
+                    }
+                }
+                Files.delete(dir);
+            }
+        }
+    }
+
+    private interface Startup {
+        LedgerBalances run() throws Exception;
+    }
+
+    private static long bestOf(Startup startup) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long t0 = System.nanoTime();
+            startup.run();
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        return best;
+    }
+}
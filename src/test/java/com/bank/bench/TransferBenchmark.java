@@ -0,0 +1,147 @@
+package com.bank.bench;
+
+import com.bank.dao.AccountDao;
+import com.bank.dao.AccountRepository;
+import com.bank.dao.InMemoryStore;
+import com.bank.dao.JournalConfig;
+import com.bank.dao.JournaledStore;
+import com.bank.dao.UserDao;
+import com.bank.dao.UserRepository;
+import com.bank.db.Database;
+import com.bank.db.DatabaseConfig;
+import com.bank.db.SqliteProfile;
+import com.bank.model.Account;
+import com.bank.model.Money;
+import com.bank.model.User;
+import com.bank.service.AccountService;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Throughput of AccountService.transfer per SQLite profile, plus the in-memory engine as a
+ * baseline for the same service logic. The profile is fixed for the lifetime of the Database
+ * class, so each profile is measured in its own child JVM against a scratch database file.
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;deps&gt; com.bank.bench.TransferBenchmark [transfers] [threads]
+ * </pre>
+ */
+public class TransferBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("bench.child") != null) {
+            runChild(Integer.parseInt(args[0]), Integer.parseInt(args[1]));
+            return;
+        }
+        String transfers = args.length > 0 ? args[0] : "2000";
+        String threads = args.length > 1 ? args[1] : "4";
+        System.out.printf("%-20s %10s %12s %10s%n", "engine", "transfers", "ops/sec", "ms");
+        for (SqliteProfile profile : SqliteProfile.values()) {
+            System.out.println(fork(profile, transfers, threads));
+        }
+        InMemoryStore store = InMemoryStore.seeded();
+        run("in-memory", store.accounts(), store.users(),
+                Integer.parseInt(transfers), Integer.parseInt(threads));
+        for (JournalConfig.SyncPolicy sync : JournalConfig.SyncPolicy.values()) {
+            Path dir = Files.createTempDirectory("bank-journal");
+            try (JournaledStore engine = JournaledStore.open(JournalConfig.of(dir).withSync(sync), InMemoryStore.seeded())) {
+                run("journal-" + sync.name().toLowerCase().replace('_', '-'), engine.accounts(),
+                        engine.users(), Integer.parseInt(transfers), Integer.parseInt(threads));
+            }
+            deleteDir(dir);
+        }
+    }
+
+    private static String fork(SqliteProfile profile, String transfers, String threads) throws Exception {
+        Path dir = Files.createTempDirectory("bank-bench");
+        Path db = dir.resolve("bench.db");
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java,
+                "-cp", System.getProperty("java.class.path"),
+                "-Dbench.child=true",
+                "-D" + DatabaseConfig.LOCATION_PROPERTY + "=" + db,
+                "-D" + SqliteProfile.PROPERTY + "=" + profile.key(),
+                TransferBenchmark.class.getName(), transfers, threads)
+                .redirectErrorStream(true)
+                .start();
+        StringBuilder out = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // the child also prints driver and startup logging; keep only its result row
+                if (line.startsWith(profile.key() + " ")) {
+                    out.append(line);
+                }
+            }
+        }
+        process.waitFor();
+        deleteDir(dir);
+        return out.toString();
+    }
+
+    private static void deleteDir(Path dir) throws Exception {
+        for (File f : dir.toFile().listFiles()) {
+            f.delete();
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    private static void runChild(int transfers, int threads) throws Exception {
+        run(Database.profile().key(), new AccountDao(), new UserDao(), transfers, threads);
+    }
+
+    private static void run(String engine, AccountRepository accountRepository, UserRepository userRepository,
+                            int transfers, int threads) throws Exception {
+        AccountService service = new AccountService(accountRepository);
+        List<Account> accounts = new ArrayList<>();
+        for (User u : userRepository.findAll()) {
+            accounts.addAll(accountRepository.findByUserId(u.getId()));
+        }
+        Money amount = Money.of("0.01");
+
+        // прогрев пула и JIT
+        for (int i = 0; i < 200; i++) {
+            transfer(service, accounts, i, amount);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        int perThread = transfers / threads;
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    transfer(service, accounts, offset + i * threads, amount);
+                }
+            }));
+        }
+        try {
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int done = perThread * threads;
+        System.out.printf("%-20s %10d %12.0f %10d%n", engine, done,
+                done / (elapsed / 1e9), elapsed / 1_000_000);
+    }
+
+    private static void transfer(AccountService service, List<Account> accounts, int i, Money amount) {
+        Account from = accounts.get(i % accounts.size());
+        Account to = accounts.get((i + 1) % accounts.size());
+        service.transfer(from.getId(), to.getId(), amount);
+    }
+}
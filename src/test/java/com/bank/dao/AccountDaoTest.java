@@ -1,10 +1,13 @@
 package com.bank.dao;
 
+import com.bank.db.Database;
 import com.bank.model.Account;
+import com.bank.model.Money;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,7 +43,7 @@ class AccountDaoTest {
             assertNotNull(account.getBalance());
             assertNotNull(account.getOwner());
             assertTrue(account.getId() > 0);
-            assertTrue(account.getBalance().compareTo(BigDecimal.ZERO) >= 0);
+            assertTrue(account.getBalance().compareTo(Money.ZERO) >= 0);
         });
     }
 
@@ -104,8 +107,8 @@ class AccountDaoTest {
         assertFalse(accounts.isEmpty());
         
         Account account = accounts.get(0);
-        BigDecimal originalBalance = account.getBalance();
-        BigDecimal newBalance = originalBalance.add(new BigDecimal("100.00"));
+        Money originalBalance = account.getBalance();
+        Money newBalance = originalBalance.plus(Money.of("100.00"));
         
         accountDao.updateBalance(account.getId(), newBalance);
         
@@ -113,9 +116,15 @@ class AccountDaoTest {
         Optional<Account> updated = accountDao.findById(account.getId());
         assertTrue(updated.isPresent());
         assertEquals(0, newBalance.compareTo(updated.get().getBalance()));
+        // разница записана в журнал, так что баланс по-прежнему выводится из проводок
+        Transaction adjustment = new TransactionDao().findAll().get(0);
+        assertEquals(TransactionType.DEPOSIT, adjustment.getType());
+        assertEquals(account.getId(), adjustment.getToAccountId());
+        assertEquals(Money.of("100.00"), adjustment.getAmount());
         
         // Восстанавливаем исходный баланс
         accountDao.updateBalance(account.getId(), originalBalance);
+        assertEquals(TransactionType.WITHDRAW, new TransactionDao().findAll().get(0).getType());
     }
 
     @Test
@@ -125,13 +134,13 @@ class AccountDaoTest {
         assertFalse(accounts.isEmpty());
         
         Account account = accounts.get(0);
-        BigDecimal originalBalance = account.getBalance();
+        Money originalBalance = account.getBalance();
         
-        accountDao.updateBalance(account.getId(), BigDecimal.ZERO);
+        accountDao.updateBalance(account.getId(), Money.ZERO);
         
         Optional<Account> updated = accountDao.findById(account.getId());
         assertTrue(updated.isPresent());
-        assertEquals(BigDecimal.ZERO, updated.get().getBalance());
+        assertEquals(Money.ZERO, updated.get().getBalance());
         
         // Восстанавливаем исходный баланс
         accountDao.updateBalance(account.getId(), originalBalance);
@@ -150,9 +159,9 @@ class AccountDaoTest {
         Account fromAccount = userAccounts.get(0);
         Account toAccount = otherAccounts.get(0);
         
-        BigDecimal fromOriginalBalance = fromAccount.getBalance();
-        BigDecimal toOriginalBalance = toAccount.getBalance();
-        BigDecimal transferAmount = new BigDecimal("10.00");
+        Money fromOriginalBalance = fromAccount.getBalance();
+        Money toOriginalBalance = toAccount.getBalance();
+        Money transferAmount = Money.of("10.00");
         
         // Убеждаемся, что на счету достаточно средств
         if (fromOriginalBalance.compareTo(transferAmount) < 0) {
@@ -167,14 +176,39 @@ class AccountDaoTest {
         Account updatedFrom = accountDao.findById(fromAccount.getId()).orElseThrow();
         Account updatedTo = accountDao.findById(toAccount.getId()).orElseThrow();
         
-        assertEquals(0, fromOriginalBalance.subtract(transferAmount).compareTo(updatedFrom.getBalance()));
-        assertEquals(0, toOriginalBalance.add(transferAmount).compareTo(updatedTo.getBalance()));
+        assertEquals(0, fromOriginalBalance.minus(transferAmount).compareTo(updatedFrom.getBalance()));
+        assertEquals(0, toOriginalBalance.plus(transferAmount).compareTo(updatedTo.getBalance()));
         
         // Восстанавливаем исходные балансы
         accountDao.updateBalance(fromAccount.getId(), fromOriginalBalance);
         accountDao.updateBalance(toAccount.getId(), toOriginalBalance);
     }
 
+    @Test
+    void testTransferJournalsInOneCommand() {
+        // Тест перевода: балансы и запись журнала — одна команда писателя; при ошибке не меняется ничего
+        TransactionDao transactionDao = new TransactionDao();
+        Account from = accountDao.findByUserId(testUserId).get(0);
+        Account to = accountDao.findAllExceptUser(testUserId).get(0);
+        long commands = Database.writer().stats().commands();
+
+        accountDao.transfer(from.getId(), to.getId(), Money.of("3.00"));
+
+        assertEquals(commands + 1, Database.writer().stats().commands());
+        Transaction last = transactionDao.findAll().get(0);
+        assertEquals(TransactionType.TRANSFER, last.getType());
+        assertEquals(from.getId(), last.getFromAccountId());
+        assertEquals(to.getId(), last.getToAccountId());
+        assertEquals(Money.of("3.00"), last.getAmount());
+
+        // списание проходит, зачисление — нет: откатывается вся команда
+        assertThrows(IllegalArgumentException.class, () -> accountDao.transfer(from.getId(), 99999, Money.of("1.00")));
+        assertEquals(from.getBalance().minus(Money.of("3.00")), accountDao.findById(from.getId()).orElseThrow().getBalance());
+        assertEquals(last.getId(), transactionDao.findAll().get(0).getId());
+
+        accountDao.transfer(to.getId(), from.getId(), Money.of("3.00"));
+    }
+
     @Test
     void testTransferInsufficientFunds() {
         // Тест перевода при недостаточных средствах
@@ -187,8 +221,8 @@ class AccountDaoTest {
         Account fromAccount = userAccounts.get(0);
         Account toAccount = otherAccounts.get(0);
         
-        BigDecimal balance = fromAccount.getBalance();
-        BigDecimal transferAmount = balance.add(new BigDecimal("1000.00"));
+        Money balance = fromAccount.getBalance();
+        Money transferAmount = balance.plus(Money.of("1000.00"));
         
         assertThrows(RuntimeException.class, () -> {
             accountDao.transfer(fromAccount.getId(), toAccount.getId(), transferAmount);
@@ -202,16 +236,16 @@ class AccountDaoTest {
         assertFalse(userAccounts.isEmpty());
         
         Account fromAccount = userAccounts.get(0);
-        BigDecimal balance = fromAccount.getBalance();
+        Money balance = fromAccount.getBalance();
         
         // Убеждаемся, что на счету достаточно средств
-        if (balance.compareTo(BigDecimal.ONE) < 0) {
-            accountDao.updateBalance(fromAccount.getId(), BigDecimal.ONE);
-            balance = BigDecimal.ONE;
+        if (balance.compareTo(Money.of("1.00")) < 0) {
+            accountDao.updateBalance(fromAccount.getId(), Money.of("1.00"));
+            balance = Money.of("1.00");
         }
         
         assertThrows(RuntimeException.class, () -> {
-            accountDao.transfer(fromAccount.getId(), 99999, BigDecimal.ONE);
+            accountDao.transfer(fromAccount.getId(), 99999, Money.of("1.00"));
         });
     }
 
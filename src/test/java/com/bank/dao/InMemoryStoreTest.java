@@ -0,0 +1,179 @@
+package com.bank.dao;
+
+import com.bank.model.Account;
+import com.bank.model.LedgerEntry;
+import com.bank.model.Money;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+import com.bank.model.User;
+import com.bank.service.AccountService;
+import com.bank.service.AuthService;
+import com.bank.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryStoreTest {
+
+    private InMemoryStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = InMemoryStore.seeded();
+    }
+
+    @Test
+    void testSeededLikeSqlite() {
+        // Тест демо-данных: те же пользователи и счета, что и в SQLite
+        assertEquals(List.of("admin", "alice", "bob", "user"),
+                store.users().findAll().stream().map(User::getUsername).toList());
+        User user = store.users().findByCredentials("user", "pass").orElseThrow();
+        assertEquals(2, store.accounts().findByUserId(user.getId()).size());
+        assertEquals(4, store.accounts().findAllExceptUser(user.getId()).size());
+        assertTrue(store.users().findByCredentials("user", "wrong").isEmpty());
+    }
+
+    @Test
+    void testReturnedAccountsAreCopies() {
+        // Тест, что изменение модели не меняет хранилище без updateBalance
+        Account account = store.accounts().findById(1).orElseThrow();
+        account.setBalance(Money.ZERO);
+
+        assertEquals(Money.of("1250.00"), store.accounts().findById(1).orElseThrow().getBalance());
+    }
+
+    @Test
+    void testTransferInsufficientFundsLeavesBalances() {
+        // Тест перевода без средств: балансы не меняются
+        assertThrows(IllegalArgumentException.class,
+                () -> store.accounts().transfer(1, 3, Money.of("100000.00")));
+
+        assertEquals(Money.of("1250.00"), store.accounts().findById(1).orElseThrow().getBalance());
+        assertEquals(Money.of("980.00"), store.accounts().findById(3).orElseThrow().getBalance());
+    }
+
+    @Test
+    void testPayrollBatch() {
+        // Тест пакетной выплаты: журнал и балансы по LedgerEntry.balanceChanges
+        List<LedgerEntry> payroll = List.of(
+                LedgerEntry.transfer(6, 1, Money.of("300.00")),
+                LedgerEntry.transfer(6, 3, Money.of("200.00")));
+
+        int[] ids = store.transactions().postBatch(payroll);
+
+        assertArrayEquals(new int[]{1, 2}, ids);
+        assertEquals(Money.of("7700.00"), store.accounts().findById(6).orElseThrow().getBalance());
+        assertEquals(Money.of("1550.00"), store.accounts().findById(1).orElseThrow().getBalance());
+        assertThrows(IllegalArgumentException.class, () -> store.transactions().postBatch(List.of(
+                LedgerEntry.deposit(1, Money.of("5.00")),
+                LedgerEntry.withdraw(3, Money.of("100000.00")))));
+        assertEquals(Money.of("1550.00"), store.accounts().findById(1).orElseThrow().getBalance());
+        assertEquals(2, store.transactions().findAll().size());
+    }
+
+    @Test
+    void testCreatedBetweenIsHalfOpen() {
+        // Тест выборки по диапазону дат: начало включено, конец нет
+        store.accounts().deposit(1, Money.of("10.00"));
+        LocalDateTime created = store.transactions().findAll().get(0).getCreatedAt();
+
+        assertEquals(1, store.transactions().findCreatedBetween(created, created.plusSeconds(1)).size());
+        assertTrue(store.transactions().findCreatedBetween(created.minusDays(1), created).isEmpty());
+    }
+
+    @Test
+    void testJournalNewestFirstWithLabels() {
+        // Тест журнала: порядок от новых к старым и подписи счетов
+        store.accounts().deposit(1, Money.of("10.00"));
+        store.accounts().transfer(1, 3, Money.of("5.00"));
+
+        List<Transaction> all = store.transactions().findAll();
+        assertEquals(2, all.size());
+        assertEquals(TransactionType.TRANSFER, all.get(0).getType());
+        assertEquals("Daily Card (user)", all.get(0).getFromLabel());
+        assertEquals("Spending (alice)", all.get(0).getToLabel());
+        assertEquals("", all.get(1).getFromLabel());
+
+        store.transactions().reverse(2);
+        assertTrue(store.transactions().findById(2).orElseThrow().isReversed());
+        assertEquals(Money.of("1260.00"), store.accounts().findById(1).orElseThrow().getBalance());
+        assertTrue(store.transactions().findById(3).isEmpty());
+    }
+
+    @Test
+    void testServicesRunOnInMemoryEngine() {
+        // Тест той же логики сервисов поверх in-memory движка
+        AccountService accounts = new AccountService(store.accounts());
+        TransactionService transactions = new TransactionService(store.transactions());
+        AuthService auth = new AuthService(store.users());
+
+        assertTrue(auth.login("alice", "pass").isPresent());
+        accounts.deposit(3, Money.of("20.00"));
+        accounts.transfer(3, 5, Money.of("100.00"));
+        assertThrows(IllegalArgumentException.class, () -> accounts.withdraw(3, Money.of("5000.00")));
+
+        assertEquals(Money.of("900.00"), store.accounts().findById(3).orElseThrow().getBalance());
+        assertEquals(Money.of("1600.00"), store.accounts().findById(5).orElseThrow().getBalance());
+
+        transactions.rollback(transactions.list().get(0).getId());
+        assertEquals(Money.of("1000.00"), store.accounts().findById(3).orElseThrow().getBalance());
+        assertEquals(Money.of("1500.00"), store.accounts().findById(5).orElseThrow().getBalance());
+    }
+
+    @Test
+    void testConcurrentTransfersKeepTotal() throws Exception {
+        // Тест конкурентных переводов: общая сумма денег сохраняется
+        Money before = total();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        int from = (offset + i) % 6 + 1;
+                        int to = from % 6 + 1;
+                        try {
+                            store.accounts().transfer(from, to, Money.of("0.50"));
+                        } catch (IllegalArgumentException ignored) {
+                            // недостаточно средств на конкретном шаге допустимо
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(before, total());
+    }
+
+    private Money total() {
+        return store.accounts().findAllExceptUser(-1).stream()
+                .map(Account::getBalance)
+                .reduce(Money.ZERO, Money::plus);
+    }
+
+    @Test
+    void testPageByCursor() {
+        // Тест страниц in-memory журнала
+        for (int i = 0; i < 5; i++) {
+            store.accounts().deposit(1, Money.of("1.00"));
+        }
+
+        assertEquals(List.of(5, 4), store.transactions().findPage(null, 2).stream().map(Transaction::getId).toList());
+        assertEquals(List.of(3, 2, 1), store.transactions().findPage(4, 10).stream().map(Transaction::getId).toList());
+        assertTrue(store.transactions().findPage(1, 10).isEmpty());
+    }
+}
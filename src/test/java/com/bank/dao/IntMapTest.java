@@ -0,0 +1,45 @@
+package com.bank.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntMapTest {
+
+    @Test
+    void testPutGetAcrossResize() {
+        // Тест вставки и поиска при росте таблицы
+        IntMap<String> map = new IntMap<>(2);
+        for (int i = -1000; i <= 1000; i++) {
+            map.put(i, "v" + i);
+        }
+
+        assertEquals(2001, map.size());
+        for (int i = -1000; i <= 1000; i++) {
+            assertEquals("v" + i, map.get(i));
+        }
+        assertNull(map.get(5000));
+    }
+
+    @Test
+    void testOverwriteKeepsSize() {
+        // Тест перезаписи значения по существующему ключу, включая ключ 0
+        IntMap<String> map = new IntMap<>();
+        map.put(0, "a");
+        map.put(0, "b");
+        map.put(7, "c");
+        map.put(7, "d");
+
+        assertEquals(2, map.size());
+        assertEquals("b", map.get(0));
+        assertEquals("d", map.get(7));
+
+        List<String> values = new ArrayList<>();
+        map.forEachValue(values::add);
+        assertEquals(2, values.size());
+        assertTrue(values.containsAll(List.of("b", "d")));
+    }
+}
@@ -0,0 +1,197 @@
+package com.bank.dao;
+
+import com.bank.model.LedgerEntry;
+import com.bank.model.Money;
+import com.bank.model.Role;
+import com.bank.service.AccountService;
+import com.bank.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLedgerJournalTest {
+
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("ledger-journal");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (var files = Files.list(dir)) {
+            for (Path f : files.toList()) {
+                Files.delete(f);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void testRecordsSurviveReopen() {
+        // Тест записи и повторного чтения журнала после закрытия
+        JournalConfig config = JournalConfig.of(dir).withSync(JournalConfig.SyncPolicy.OS);
+        try (MappedLedgerJournal journal = MappedLedgerJournal.open(config, r -> fail("журнал должен быть пуст"))) {
+            assertEquals(1, journal.append(record(LedgerRecord.Kind.DEPOSIT, 0, 1, 500)).sequence());
+            assertEquals(2, journal.append(record(LedgerRecord.Kind.TRANSFER, 1, 2, 250)).sequence());
+        }
+
+        List<LedgerRecord> replayed = new ArrayList<>();
+        try (MappedLedgerJournal journal = MappedLedgerJournal.open(config, replayed::add)) {
+            assertEquals(2, journal.lastSequence());
+            assertEquals(3, journal.append(record(LedgerRecord.Kind.REVERSE, 1, 0, 0)).sequence());
+        }
+        assertEquals(List.of(
+                new LedgerRecord(1, LedgerRecord.Kind.DEPOSIT, 0, 1, 500, 1_000L),
+                new LedgerRecord(2, LedgerRecord.Kind.TRANSFER, 1, 2, 250, 1_000L)), replayed);
+    }
+
+    @Test
+    void testSegmentsRoll() {
+        // Тест переключения на новый сегмент при заполнении
+        JournalConfig config = JournalConfig.of(dir).withSegmentRecords(4).withSync(JournalConfig.SyncPolicy.EVERY_RECORD);
+        try (MappedLedgerJournal journal = MappedLedgerJournal.open(config, r -> { })) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(record(LedgerRecord.Kind.DEPOSIT, 0, 1, i + 1));
+            }
+            assertEquals(3, journal.segmentCount());
+        }
+
+        List<LedgerRecord> replayed = new ArrayList<>();
+        try (MappedLedgerJournal journal = MappedLedgerJournal.open(config, replayed::add)) {
+            assertEquals(10, journal.lastSequence());
+        }
+        assertEquals(10, replayed.size());
+        assertEquals(10, replayed.get(9).amountCents());
+    }
+
+    @Test
+    void testTornTailDropped() throws Exception {
+        // Тест восстановления: поврежденная последняя запись отбрасывается
+        JournalConfig config = JournalConfig.of(dir).withSegmentRecords(16).withSync(JournalConfig.SyncPolicy.OS);
+        try (MappedLedgerJournal journal = MappedLedgerJournal.open(config, r -> { })) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(record(LedgerRecord.Kind.DEPOSIT, 0, 1, 100));
+            }
+        }
+        Path segment;
+        try (var files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // портим сумму третьей записи, CRC больше не сходится
+            file.seek(16 + 2L * MappedLedgerJournal.RECORD_SIZE + 8);
+            file.writeLong(999);
+        }
+
+        List<LedgerRecord> replayed = new ArrayList<>();
+        try (MappedLedgerJournal journal = MappedLedgerJournal.open(config, replayed::add)) {
+            assertEquals(2, replayed.size());
+            assertEquals(3, journal.append(record(LedgerRecord.Kind.DEPOSIT, 0, 1, 7)).sequence());
+        }
+    }
+
+    @Test
+    void testTornGroupDroppedWhole() throws Exception {
+        // Тест восстановления: группа без последней записи отбрасывается целиком
+        JournalConfig config = JournalConfig.of(dir).withSegmentRecords(16).withSync(JournalConfig.SyncPolicy.OS);
+        try (MappedLedgerJournal journal = MappedLedgerJournal.open(config, r -> { })) {
+            journal.append(record(LedgerRecord.Kind.DEPOSIT, 0, 1, 100));
+            List<LedgerRecord> group = journal.appendAll(List.of(
+                    record(LedgerRecord.Kind.REVERSE, 1, 0, 0),
+                    record(LedgerRecord.Kind.DEPOSIT, 0, 2, 5),
+                    record(LedgerRecord.Kind.DEPOSIT, 0, 3, 5)));
+            assertEquals(4, group.get(2).sequence());
+        }
+        Path segment;
+        try (var files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // портим последнюю запись группы
+            file.seek(16 + 3L * MappedLedgerJournal.RECORD_SIZE + 8);
+            file.writeLong(999);
+        }
+
+        List<LedgerRecord> replayed = new ArrayList<>();
+        try (MappedLedgerJournal journal = MappedLedgerJournal.open(config, replayed::add)) {
+            assertEquals(1, replayed.size());
+            assertEquals(2, journal.append(record(LedgerRecord.Kind.DEPOSIT, 0, 1, 7)).sequence());
+        }
+        replayed.clear();
+        try (MappedLedgerJournal journal = MappedLedgerJournal.open(config, replayed::add)) {
+            assertEquals(2, journal.lastSequence());
+        }
+        assertEquals(7, replayed.get(1).amountCents());
+    }
+
+    @Test
+    void testJournaledStoreRestoresBalancesAndHistory() {
+        // Тест движка на журнале: после перезапуска балансы и история совпадают
+        JournalConfig config = JournalConfig.of(dir).withSegmentRecords(8);
+        try (JournaledStore engine = JournaledStore.open(config, InMemoryStore.seeded())) {
+            AccountService accounts = new AccountService(engine.accounts());
+            accounts.deposit(1, Money.of("10.00"));
+            accounts.withdraw(3, Money.of("80.00"));
+            accounts.transfer(2, 5, Money.of("200.00"));
+            new TransactionService(engine.transactions()).rollback(1);
+            engine.transactions().postBatch(List.of(LedgerEntry.transfer(6, 4, Money.of("100.00"))));
+            engine.transactions().reverseAll(List.of(4));
+        }
+
+        try (JournaledStore engine = JournaledStore.open(config, InMemoryStore.seeded())) {
+            assertEquals(Money.of("1250.00"), balance(engine, 1));
+            assertEquals(Money.of("3000.00"), balance(engine, 2));
+            assertEquals(Money.of("900.00"), balance(engine, 3));
+            assertEquals(Money.of("1700.00"), balance(engine, 5));
+            assertEquals(4, engine.transactions().findAll().size());
+            assertEquals(Money.of("8200.00"), balance(engine, 6));
+            assertTrue(engine.transactions().findById(1).orElseThrow().isReversed());
+            assertEquals(Money.of("200.00"), engine.transactions().findById(3).orElseThrow().getAmount());
+        }
+    }
+
+    @Test
+    void testJournaledStoreRejectsDifferentDirectory() {
+        // Тест, что журнал не открывается поверх других пользователей и счетов
+        JournalConfig config = JournalConfig.of(dir);
+        try (JournaledStore engine = JournaledStore.open(config, InMemoryStore.seeded())) {
+            new AccountService(engine.accounts()).deposit(1, Money.of("10.00"));
+            assertThrows(IllegalStateException.class, () -> engine.store().addUser("carol", "pass", Role.USER));
+        }
+
+        InMemoryStore other = InMemoryStore.seeded();
+        other.addAccount(2, "Extra", "BKUSER2MEM0000007", Money.of("50.00"));
+        assertThrows(IllegalStateException.class, () -> JournaledStore.open(config, other));
+
+        try (JournaledStore engine = JournaledStore.open(config, InMemoryStore.seeded())) {
+            assertEquals(Money.of("1260.00"), balance(engine, 1));
+        }
+    }
+
+    @Test
+    void testClosedJournalRejectsAppends() {
+        // Тест, что закрытый журнал не принимает записи
+        MappedLedgerJournal journal = MappedLedgerJournal.open(JournalConfig.of(dir), r -> { });
+        journal.close();
+
+        assertThrows(IllegalStateException.class, () -> journal.append(record(LedgerRecord.Kind.DEPOSIT, 0, 1, 1)));
+    }
+
+    private static LedgerRecord record(LedgerRecord.Kind kind, int from, int to, long cents) {
+        return new LedgerRecord(0, kind, from, to, cents, 1_000L);
+    }
+
+    private static Money balance(JournaledStore engine, int accountId) {
+        return engine.accounts().findById(accountId).orElseThrow().getBalance();
+    }
+}
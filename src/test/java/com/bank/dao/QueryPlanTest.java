@@ -0,0 +1,217 @@
+package com.bank.dao;
+
+import com.bank.db.BulkLoader;
+import com.bank.db.Database;
+import com.bank.db.DatabaseConfig;
+import com.bank.db.Migrations;
+import com.bank.db.SchemaMigrator;
+import com.bank.db.SqliteProfile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EXPLAIN QUERY PLAN for every SQL statement the DAOs declare, against a generated database of
+ * production shape. A full SCAN is only accepted where the query is registered as reading the
+ * whole table on purpose. Median timings go to {@code target/query-baseline.csv}.
+ */
+class QueryPlanTest {
+
+    private static final List<Class<?>> DAOS = List.of(UserDao.class, AccountDao.class, TransactionDao.class);
+
+    // aliases listed in "scans" may be read in full: these queries return (almost) every row
+    private static final List<Query> QUERIES = List.of(
+            query(UserDao.class, "FIND_BY_CREDENTIALS", "user42", "pass"),
+            query(UserDao.class, "FIND_ALL").scans("users"),
+            query(AccountDao.class, "FIND_BY_USER_ID", 42),
+            query(AccountDao.class, "FIND_ALL_EXCEPT_USER", 42).scans("a"),
+            query(AccountDao.class, "FIND_BY_ID", 42),
+            query(AccountDao.class, "GET_BALANCE", 42),
+            query(AccountDao.class, "ADJUST_BALANCE", 100, 42, 100),
+            query(AccountDao.class, "ADJUST_BALANCE_RETURNING", 100, 42, 100),
+            query(AccountDao.class, "UPDATE_BALANCE", 0, 42),
+            query(TransactionDao.class, "INSERT", "DEPOSIT", null, 42, 100),
+            query(TransactionDao.class, "LAST_INSERT_ID").scans("CONSTANT"),
+            query(TransactionDao.class, "FIND_ALL").scans("t"),
+            query(TransactionDao.class, "FIND_PAGE", 150_000, 200),
+            query(TransactionDao.class, "FIND_BY_ID", 42),
+            query(TransactionDao.class, "FIND_CREATED_BETWEEN", "2024-01-10 00:00:00", "2024-01-11 00:00:00"),
+            query(TransactionDao.class, "FIND_CREATED_BETWEEN_WITH_ARCHIVE",
+                    "2024-01-10 00:00:00", "2024-01-11 00:00:00", "2024-01-10 00:00:00", "2024-01-11 00:00:00"),
+            query(TransactionDao.class, "FIND_BY_ACCOUNT",
+                    42, "0000-01-01 00:00:00", "9999-12-31 23:59:59", 50,
+                    42, "0000-01-01 00:00:00", "9999-12-31 23:59:59", 50, 50),
+            query(TransactionDao.class, "FIND_BY_ACCOUNT_WITH_ARCHIVE",
+                    42, "0000-01-01 00:00:00", "9999-12-31 23:59:59", 50,
+                    42, "0000-01-01 00:00:00", "9999-12-31 23:59:59", 50,
+                    42, "0000-01-01 00:00:00", "9999-12-31 23:59:59", 50,
+                    42, "0000-01-01 00:00:00", "9999-12-31 23:59:59", 50, 50),
+            query(TransactionDao.class, "MARK_REVERSED", 42),
+            query(TransactionDao.class, "REVERSE", 42, "2024-01-10 00:00:00"),
+            query(TransactionDao.class, "FIND_REVERSED", 42));
+
+    private static Path dir;
+
+    @BeforeAll
+    static void loadDataset() throws Exception {
+        dir = Files.createTempDirectory("query-plan");
+        Path file = dir.resolve("bank.db");
+        try (Connection conn = SqliteProfile.BULK_LOAD.toConfig().createConnection("jdbc:sqlite:" + file)) {
+            new SchemaMigrator(Migrations.ALL).migrate(conn);
+            new BulkLoader(BulkLoader.Spec.of(20_000, 2, 200_000)).load(conn);
+        }
+        Database.close();
+        // archiving on, so the *_WITH_ARCHIVE queries have the archive schema to plan against
+        Database.open(DatabaseConfig.file(file).withArchiveAge(Duration.ofDays(36_500)));
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        Database.close();
+        try (var files = Files.list(dir)) {
+            for (Path f : files.toList()) {
+                Files.delete(f);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void testEveryDaoStatementIsRegistered() throws Exception {
+        // Тест, что каждый SQL-запрос DAO есть в реестре
+        Set<String> declared = new TreeSet<>();
+        for (Class<?> dao : DAOS) {
+            for (Field field : dao.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class && isSql(sql(field))) {
+                    declared.add(dao.getSimpleName() + "." + field.getName());
+                }
+            }
+        }
+        Set<String> registered = new TreeSet<>();
+        QUERIES.forEach(q -> registered.add(q.name()));
+
+        assertEquals(declared, registered);
+    }
+
+    @Test
+    void testNoUnexpectedFullScans() throws SQLException {
+        // Тест планов: полный SCAN большой таблицы только там, где он ожидается
+        List<String> failures = new ArrayList<>();
+        try (Connection conn = Database.getReadConnection()) {
+            for (Query query : QUERIES) {
+                for (String step : plan(conn, query)) {
+                    // "SCAN (subquery-N)" reads a bounded sub-select's output, not a table
+                    if (step.startsWith("SCAN ") && !step.startsWith("SCAN (subquery")
+                            && !query.allowed().contains(step.split(" ")[1])) {
+                        failures.add(query.name() + ": " + step);
+                    }
+                }
+            }
+        }
+        assertTrue(failures.isEmpty(), "Unexpected full scans:\n" + String.join("\n", failures));
+    }
+
+    @Test
+    void testRecordTimingBaseline() throws Exception {
+        // Тест записи базовых времен выполнения запросов
+        StringBuilder csv = new StringBuilder("query,median_us,plan\n");
+        try (Connection conn = Database.getReadConnection()) {
+            for (Query query : QUERIES) {
+                String plan = String.join(" | ", plan(conn, query));
+                long median = isRead(query.sql()) ? medianMicros(conn, query) : -1;
+                csv.append(query.name()).append(',').append(median).append(",\"").append(plan).append("\"\n");
+            }
+        }
+        Path out = Paths.get("target", "query-baseline.csv");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, csv);
+        assertEquals(QUERIES.size() + 1, Files.readAllLines(out).size());
+    }
+
+    private static List<String> plan(Connection conn, Query query) throws SQLException {
+        List<String> steps = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN QUERY PLAN " + query.sql())) {
+            bind(ps, query.params());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    steps.add(rs.getString("detail"));
+                }
+            }
+        }
+        return steps;
+    }
+
+    private static long medianMicros(Connection conn, Query query) throws SQLException {
+        long[] runs = new long[7];
+        try (PreparedStatement ps = conn.prepareStatement(query.sql())) {
+            bind(ps, query.params());
+            for (int i = 0; i < runs.length; i++) {
+                long t0 = System.nanoTime();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rs.getObject(1);
+                    }
+                }
+                runs[i] = (System.nanoTime() - t0) / 1_000;
+            }
+        }
+        Arrays.sort(runs);
+        return runs[runs.length / 2];
+    }
+
+    private static void bind(PreparedStatement ps, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            ps.setObject(i + 1, params[i]);
+        }
+    }
+
+    private static boolean isSql(String value) {
+        String head = value.stripLeading().toUpperCase();
+        return head.startsWith("SELECT") || head.startsWith("INSERT") || head.startsWith("UPDATE") || head.startsWith("DELETE");
+    }
+
+    private static boolean isRead(String sql) {
+        return sql.stripLeading().toUpperCase().startsWith("SELECT");
+    }
+
+    private static String sql(Field field) {
+        try {
+            field.setAccessible(true);
+            return (String) field.get(null);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Query query(Class<?> dao, String field, Object... params) {
+        try {
+            return new Query(dao.getSimpleName() + "." + field, sql(dao.getDeclaredField(field)), params, Set.of());
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Query(String name, String sql, Object[] params, Set<String> allowed) {
+        Query scans(String... aliases) {
+            return new Query(name, sql, params, Set.of(aliases));
+        }
+    }
+}
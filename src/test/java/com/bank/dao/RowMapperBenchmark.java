@@ -0,0 +1,114 @@
+package com.bank.dao;
+
+import com.bank.db.BulkLoader;
+import com.bank.db.Migrations;
+import com.bank.db.SchemaMigrator;
+import com.bank.model.Money;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * {@link TransactionDao#TRANSACTION} against the by-name mapper it replaced, over the full
+ * journal query on a {@link BulkLoader} dataset. Prints the best of several passes and the heap
+ * allocated per row. Lives in {@code com.bank.dao} because the mappers are package-private.
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;deps&gt; com.bank.dao.RowMapperBenchmark [rows] [passes]
+ * </pre>
+ */
+public class RowMapperBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Path dir = Files.createTempDirectory("bank-mapper");
+        Path db = dir.resolve("bank.db");
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + db)) {
+            new SchemaMigrator(Migrations.ALL).migrate(conn);
+            new BulkLoader(BulkLoader.Spec.of(Math.max(rows / 50, 10), 2, rows)).load(conn);
+
+            System.out.printf("%-10s %10s %12s %14s %14s%n", "mapper", "rows", "best ms", "rows/sec", "bytes/row");
+            // alternate so neither side gets all the warm-up
+            Result legacy = null;
+            Result indexed = null;
+            for (int i = 0; i < passes; i++) {
+                legacy = Result.best(legacy, run(conn, rs -> RowMapperBenchmark::byName));
+                indexed = Result.best(indexed, run(conn, TransactionDao.TRANSACTION));
+            }
+            legacy.print("by-name");
+            indexed.print("indexed");
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path f : files.toList()) {
+                    Files.delete(f);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    private record Result(long rows, long nanos, long bytes) {
+        static Result best(Result a, Result b) {
+            return a == null || b.nanos < a.nanos ? b : a;
+        }
+
+        void print(String name) {
+            System.out.printf("%-10s %10d %12.1f %14.0f %14.1f%n", name, rows, nanos / 1e6,
+                    rows / (nanos / 1e9), (double) bytes / rows);
+        }
+    }
+
+    private static Result run(Connection conn, RowMapper.Factory<Transaction> factory) throws SQLException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long count = 0;
+        long checksum = 0;
+        long bytes0 = threads.getThreadAllocatedBytes(thread);
+        long t0 = System.nanoTime();
+        try (PreparedStatement ps = conn.prepareStatement(TransactionDao.FIND_ALL)) {
+            ps.setFetchSize(1_000);
+            try (ResultSet rs = ps.executeQuery()) {
+                RowMapper<Transaction> mapper = factory.bind(rs);
+                while (rs.next()) {
+                    Transaction tx = mapper.map(rs);
+                    checksum += tx.getId() + tx.getFromLabel().length() + tx.getCreatedAt().getSecond();
+                    count++;
+                }
+            }
+        }
+        long nanos = System.nanoTime() - t0;
+        long bytes = threads.getThreadAllocatedBytes(thread) - bytes0;
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return new Result(count, nanos, bytes);
+    }
+
+    // the mapper TransactionDao used before RowMapper: every column looked up by name on every row
+    private static Transaction byName(ResultSet rs) throws SQLException {
+        int id = rs.getInt("id");
+        TransactionType type = TransactionType.valueOf(rs.getString("type"));
+        Integer fromId = rs.getObject("from_account_id") == null ? null : rs.getInt("from_account_id");
+        Integer toId = rs.getObject("to_account_id") == null ? null : rs.getInt("to_account_id");
+        Money amount = Money.ofCents(rs.getLong("amount_cents"));
+        boolean reversed = rs.getInt("reversed") == 1;
+        LocalDateTime created = rs.getTimestamp("created_at").toLocalDateTime();
+        String fromLabel = rs.getString("from_name");
+        String fromOwner = rs.getString("from_owner");
+        String toLabel = rs.getString("to_name");
+        String toOwner = rs.getString("to_owner");
+        String from = fromLabel == null ? "" : fromLabel + " (" + fromOwner + ")";
+        String to = toLabel == null ? "" : toLabel + " (" + toOwner + ")";
+        return new Transaction(id, type, fromId, toId, amount, reversed, created, from, to);
+    }
+}
@@ -0,0 +1,71 @@
+package com.bank.dao;
+
+import com.bank.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowMapperTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void testNullableIntTellsNullFromZero() throws SQLException {
+        // Тест чтения nullable int: NULL, 0 и обычное значение различаются
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT NULL, 0, 42")) {
+            assertTrue(rs.next());
+            assertNull(RowMapper.nullableInt(rs, 1));
+            assertEquals(0, RowMapper.nullableInt(rs, 2));
+            assertEquals(42, RowMapper.nullableInt(rs, 3));
+        }
+    }
+
+    @Test
+    void testTimestampMatchesDriver() throws SQLException {
+        // Тест разбора created_at: тот же результат, что и getTimestamp драйвера
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT CURRENT_TIMESTAMP, '2024-02-29 23:59:07', NULL")) {
+            assertTrue(rs.next());
+            assertEquals(rs.getTimestamp(1).toLocalDateTime(), RowMapper.timestamp(rs, 1));
+            assertEquals(LocalDateTime.of(2024, 2, 29, 23, 59, 7), RowMapper.timestamp(rs, 2));
+            assertNull(RowMapper.timestamp(rs, 3));
+        }
+    }
+
+    @Test
+    void testFactoryResolvesColumnsByLabel() throws SQLException {
+        // Тест фабрики: порядок колонок в запросе не важен, чтение идет по найденным индексам
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT 'ADMIN' AS role, 'secret' AS password, 7 AS id, 'root' AS username "
+                             + "UNION ALL SELECT 'USER', 'pass', 8, 'bob'")) {
+            List<User> users = RowMapper.readAll(rs, UserDao.USER, new ArrayList<>());
+            assertEquals(2, users.size());
+            assertEquals(7, users.get(0).getId());
+            assertEquals("root", users.get(0).getUsername());
+            assertEquals("bob", users.get(1).getUsername());
+        }
+    }
+}
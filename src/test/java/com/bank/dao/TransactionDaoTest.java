@@ -1,13 +1,18 @@
 package com.bank.dao;
 
+import com.bank.db.Database;
 import com.bank.model.Account;
+import com.bank.model.DateRange;
+import com.bank.model.LedgerEntry;
+import com.bank.model.Money;
 import com.bank.model.Transaction;
 import com.bank.model.TransactionType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,7 +38,7 @@ class TransactionDaoTest {
     @Test
     void testInsertDeposit() {
         // Тест создания транзакции пополнения
-        BigDecimal amount = new BigDecimal("50.00");
+        Money amount = Money.of("50.00");
         
         transactionDao.insertDeposit(testAccountId, amount);
         
@@ -59,7 +64,7 @@ class TransactionDaoTest {
     @Test
     void testInsertWithdraw() {
         // Тест создания транзакции снятия
-        BigDecimal amount = new BigDecimal("25.00");
+        Money amount = Money.of("25.00");
         
         transactionDao.insertWithdraw(testAccountId, amount);
         
@@ -90,7 +95,7 @@ class TransactionDaoTest {
         assertFalse(otherAccounts.isEmpty());
         
         int toAccountId = otherAccounts.get(0).getId();
-        BigDecimal amount = new BigDecimal("15.00");
+        Money amount = Money.of("15.00");
         
         transactionDao.insertTransfer(testAccountId, toAccountId, amount);
         
@@ -115,6 +120,40 @@ class TransactionDaoTest {
         assertFalse(transfer.isReversed());
     }
 
+    @Test
+    void testPostBatchIsOneCommit() {
+        // Тест пакетной проводки: балансы и журнал в одном коммите, id по порядку
+        Account other = accountDao.findAllExceptUser(
+                accountDao.findById(testAccountId).orElseThrow().getUserId()).get(0);
+        Money before = accountDao.findById(testAccountId).orElseThrow().getBalance();
+        List<LedgerEntry> entries = List.of(
+                LedgerEntry.deposit(testAccountId, Money.of("7.00")),
+                LedgerEntry.transfer(testAccountId, other.getId(), Money.of("2.00")),
+                LedgerEntry.withdraw(other.getId(), Money.of("1.00")));
+
+        int[] ids = transactionDao.postBatch(entries);
+
+        assertEquals(3, ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            Transaction tx = transactionDao.findById(ids[i]).orElseThrow();
+            assertEquals(entries.get(i).type(), tx.getType());
+            assertEquals(entries.get(i).fromAccountId(), tx.getFromAccountId());
+            assertEquals(entries.get(i).toAccountId(), tx.getToAccountId());
+            assertEquals(entries.get(i).amount(), tx.getAmount());
+        }
+        assertEquals(before.plus(Money.of("5.00")), accountDao.findById(testAccountId).orElseThrow().getBalance());
+        assertEquals(other.getBalance().plus(Money.of("1.00")), accountDao.findById(other.getId()).orElseThrow().getBalance());
+
+        int journal = transactionDao.findAll().size();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> transactionDao.postBatch(List.of(
+                LedgerEntry.deposit(testAccountId, Money.of("1.00")),
+                LedgerEntry.withdraw(other.getId(), Money.of("1000000.00")))));
+        assertEquals("Недостаточно средств", e.getMessage());
+        assertEquals(journal, transactionDao.findAll().size());
+        assertEquals(before.plus(Money.of("5.00")), accountDao.findById(testAccountId).orElseThrow().getBalance());
+        assertEquals(0, transactionDao.postBatch(List.of()).length);
+    }
+
     @Test
     void testFindAll() {
         // Тест получения всех транзакций
@@ -126,7 +165,7 @@ class TransactionDaoTest {
         transactions.forEach(transaction -> {
             assertNotNull(transaction.getType());
             assertNotNull(transaction.getAmount());
-            assertTrue(transaction.getAmount().compareTo(BigDecimal.ZERO) > 0);
+            assertTrue(transaction.getAmount().compareTo(Money.ZERO) > 0);
             assertNotNull(transaction.getCreatedAt());
             assertTrue(transaction.getId() > 0);
             
@@ -176,7 +215,7 @@ class TransactionDaoTest {
     @Test
     void testMarkReversed() {
         // Тест пометки транзакции как откатанной
-        BigDecimal amount = new BigDecimal("30.00");
+        Money amount = Money.of("30.00");
         transactionDao.insertDeposit(testAccountId, amount);
         
         // Находим созданную транзакцию
@@ -212,7 +251,7 @@ class TransactionDaoTest {
         assertTrue(transaction.getId() > 0);
         assertNotNull(transaction.getType());
         assertNotNull(transaction.getAmount());
-        assertTrue(transaction.getAmount().compareTo(BigDecimal.ZERO) > 0);
+        assertTrue(transaction.getAmount().compareTo(Money.ZERO) > 0);
         assertNotNull(transaction.getCreatedAt());
         
         // Проверяем метки счетов
@@ -238,5 +277,79 @@ class TransactionDaoTest {
             }
         }
     }
-}
 
+    @Test
+    void testPagesContinueFromCursor() {
+        // Тест постраничного чтения по курсору «до id»
+        for (int i = 0; i < 6; i++) {
+            transactionDao.insertDeposit(testAccountId, Money.of("1.00"));
+        }
+        List<Transaction> all = transactionDao.findAll();
+
+        List<Transaction> first = transactionDao.findPage(null, 3);
+        List<Transaction> second = transactionDao.findPage(first.get(2).getId(), 3);
+
+        assertEquals(all.subList(0, 3).stream().map(Transaction::getId).toList(),
+                first.stream().map(Transaction::getId).toList());
+        assertEquals(all.subList(3, 6).stream().map(Transaction::getId).toList(),
+                second.stream().map(Transaction::getId).toList());
+    }
+
+    @Test
+    void testFindByAccountMergesBothSides() {
+        // Тест истории счета: входящие и исходящие операции, новые сверху, с лимитом и периодом
+        int otherId = accountDao.findAllExceptUser(
+                accountDao.findById(testAccountId).orElseThrow().getUserId()).get(0).getId();
+        transactionDao.insertDeposit(testAccountId, Money.of("3.00"));
+        transactionDao.insertTransfer(testAccountId, otherId, Money.of("1.00"));
+        transactionDao.insertTransfer(otherId, testAccountId, Money.of("0.50"));
+        transactionDao.insertDeposit(otherId, Money.of("4.00"));
+
+        List<Integer> expected = transactionDao.findAll().stream()
+                .filter(t -> Integer.valueOf(testAccountId).equals(t.getFromAccountId())
+                        || Integer.valueOf(testAccountId).equals(t.getToAccountId()))
+                .map(Transaction::getId)
+                .toList();
+        List<Integer> history = transactionDao.findByAccount(testAccountId, DateRange.ALL, 1000).stream()
+                .map(Transaction::getId)
+                .toList();
+
+        assertEquals(expected, history);
+        assertEquals(expected.subList(0, 2), transactionDao.findByAccount(testAccountId, DateRange.ALL, 2).stream()
+                .map(Transaction::getId)
+                .toList());
+        DateRange future = new DateRange(LocalDateTime.now().plusYears(1), null);
+        assertTrue(transactionDao.findByAccount(testAccountId, future, 10).isEmpty());
+    }
+
+    @Test
+    void testStreamMatchesFindAll() {
+        // Тест потокового чтения: те же строки и порядок, что и findAll
+        transactionDao.insertDeposit(testAccountId, Money.of("2.00"));
+        List<Integer> expected = transactionDao.findAll().stream().map(Transaction::getId).toList();
+
+        List<Integer> streamed;
+        try (Stream<Transaction> stream = transactionDao.streamAll(2)) {
+            streamed = stream.map(Transaction::getId).toList();
+        }
+
+        assertEquals(expected, streamed);
+        assertEquals(expected.size(), transactionDao.forEach(2, tx -> assertNotNull(tx.getType())));
+    }
+
+    @Test
+    void testStreamReleasesConnection() {
+        // Тест возврата соединения в пул: после полного чтения и после раннего закрытия
+        transactionDao.insertDeposit(testAccountId, Money.of("2.00"));
+        int active = Database.readPoolStats().active();
+
+        transactionDao.streamAll(10).forEach(tx -> { });
+        assertEquals(active, Database.readPoolStats().active());
+
+        try (Stream<Transaction> stream = transactionDao.streamAll(10)) {
+            assertTrue(stream.findFirst().isPresent());
+            assertEquals(active + 1, Database.readPoolStats().active());
+        }
+        assertEquals(active, Database.readPoolStats().active());
+    }
+}
@@ -0,0 +1,187 @@
+package com.bank.db;
+
+import com.bank.dao.TransactionDao;
+import com.bank.model.Money;
+import com.bank.model.Transaction;
+import com.bank.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveJobTest {
+
+    private static final Clock JUNE_2024 = Clock.fixed(Instant.parse("2024-06-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private final TransactionDao transactionDao = new TransactionDao();
+    private ArchiveJob job;
+
+    @BeforeEach
+    void setUp() {
+        Database.close();
+        // возраст планового запуска больше любой тестовой даты: переносит только job ниже
+        Database.open(DatabaseConfig.inMemory("archive-" + UUID.randomUUID()).withArchiveAge(Duration.ofDays(36_500)));
+        // 12 январских пополнений; сиды созданы «сейчас» и в архив не попадают
+        for (int day = 1; day <= 12; day++) {
+            String createdAt = String.format("2024-01-%02d 12:00:00", day);
+            Database.writer().execute(conn -> deposit(conn, 1, 100, createdAt));
+        }
+        job = new ArchiveJob(Database.writer(), Duration.ofDays(30), 5, JUNE_2024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Database.close();
+    }
+
+    @Test
+    void testMovesOldTransactionsInChunks() throws SQLException {
+        // Тест переноса старых транзакций порциями
+        long hotBefore = count("main.transactions");
+
+        assertEquals(12, job.run());
+
+        assertEquals(hotBefore - 12, count("main.transactions"));
+        assertEquals(12, count("archive.transactions"));
+        assertTrue(transactionDao.findAll().stream()
+                .noneMatch(t -> t.getCreatedAt().getYear() == 2024));
+        assertEquals(0, job.run(), "Повторный запуск ничего не переносит");
+    }
+
+    @Test
+    void testDateRangeReachesArchiveOnlyWhenNeeded() {
+        // Тест объединения горячей и архивной части по диапазону дат
+        job.run();
+
+        List<Transaction> january = transactionDao.findCreatedBetween(
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0));
+        assertEquals(12, january.size());
+        assertTrue(january.get(0).getId() > january.get(11).getId(), "Новые первыми");
+        assertEquals(Money.ofCents(100), january.get(0).getAmount());
+        assertNotNull(january.get(0).getToLabel());
+
+        List<Transaction> recent = transactionDao.findCreatedBetween(
+                LocalDateTime.of(2024, 6, 1, 0, 0), LocalDateTime.now().plusDays(1));
+        assertEquals(transactionDao.findAll().size(), recent.size());
+    }
+
+    @Test
+    void testInterruptedMoveIsNotDuplicated() throws SQLException {
+        // Тест прерванного переноса: строка уже в архиве, но еще в горячей таблице
+        Database.writer().execute(conn -> {
+            try (Statement st = conn.createStatement()) {
+                return st.executeUpdate("INSERT INTO archive.transactions SELECT id, type, from_account_id, "
+                        + "to_account_id, amount_cents, reversed, created_at FROM main.transactions "
+                        + "WHERE created_at < '2024-01-02'");
+            }
+        });
+        assertEquals(1, transactionDao.findCreatedBetween(
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 2, 0, 0)).size());
+
+        assertEquals(11, job.run());
+
+        assertEquals(12, count("archive.transactions"));
+        assertEquals(0, scalar("SELECT COUNT(*) FROM main.transactions WHERE created_at < '2024-02-01'"));
+    }
+
+    @Test
+    void testBalancesStillDerivableFromLedger() throws SQLException {
+        // Тест, что балансы по-прежнему выводятся из журнала вместе с архивом
+        job.run();
+
+        try (Connection conn = Database.getReadConnection()) {
+            LedgerBalances balances = LedgerBalances.replayAll(conn);
+            try (Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT id, balance_cents FROM accounts")) {
+                while (rs.next()) {
+                    assertEquals(Money.ofCents(rs.getLong(2)), balances.balance(rs.getInt(1)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testArchivedTransactionIsSettled() throws SQLException {
+        // Тест, что архивная транзакция не откатывается
+        long id = scalar("SELECT MIN(id) FROM main.transactions WHERE created_at < '2024-02-01'");
+        job.run();
+
+        TransactionService service = new TransactionService();
+        assertThrows(IllegalArgumentException.class, () -> service.rollback((int) id));
+    }
+
+    @Test
+    void testReversalAfterCopyIsNotLost() throws SQLException {
+        // Тест отката строки, уже скопированной в архив: архив получает актуальный флаг
+        long id = scalar("SELECT MIN(id) FROM main.transactions WHERE created_at < '2024-02-01'");
+        Database.writer().execute(conn -> {
+            try (Statement st = conn.createStatement()) {
+                return st.executeUpdate("INSERT INTO archive.transactions SELECT id, type, from_account_id, "
+                        + "to_account_id, amount_cents, reversed, created_at FROM main.transactions WHERE id = " + id);
+            }
+        });
+        new TransactionService().rollback((int) id);
+
+        assertEquals(12, job.run());
+
+        assertEquals(1, scalar("SELECT reversed FROM archive.transactions WHERE id = " + id));
+        try (Connection conn = Database.getReadConnection()) {
+            assertEquals(List.of(), LedgerBalances.replayAll(conn).mismatches(conn));
+        }
+    }
+
+    @Test
+    void testSettledTransactionIsNotReversed() throws SQLException {
+        // Тест, что транзакция старше срока архивации не откатывается, даже если еще не перенесена
+        Database.writer().execute(conn -> deposit(conn, 2, 500, "1900-01-01 12:00:00"));
+        long id = scalar("SELECT MAX(id) FROM main.transactions");
+        long balance = scalar("SELECT balance_cents FROM accounts WHERE id = 2");
+
+        TransactionService service = new TransactionService();
+        // плановый запуск мог уже перенести строку: тогда она просто не найдена
+        RuntimeException e = assertThrows(RuntimeException.class, () -> service.rollback((int) id));
+        assertTrue(e instanceof IllegalStateException || e instanceof IllegalArgumentException, e.toString());
+        assertEquals(balance, scalar("SELECT balance_cents FROM accounts WHERE id = 2"));
+    }
+
+    private static int deposit(Connection conn, int accountId, long cents, String createdAt) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO transactions(type, to_account_id, amount_cents, created_at) VALUES('DEPOSIT', ?, ?, ?)")) {
+            ps.setInt(1, accountId);
+            ps.setLong(2, cents);
+            ps.setString(3, createdAt);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE accounts SET balance_cents = balance_cents + ? WHERE id = ?")) {
+            ps.setLong(1, cents);
+            ps.setInt(2, accountId);
+            return ps.executeUpdate();
+        }
+    }
+
+    private static long count(String table) throws SQLException {
+        return scalar("SELECT COUNT(*) FROM " + table);
+    }
+
+    private static long scalar(String sql) throws SQLException {
+        try (Connection conn = Database.getReadConnection(); Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
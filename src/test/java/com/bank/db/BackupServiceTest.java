@@ -0,0 +1,188 @@
+package com.bank.db;
+
+import com.bank.model.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackupServiceTest {
+
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("bank-backup");
+        Database.close();
+        Database.open(DatabaseConfig.tempFile());
+        // несколько сотен страниц, чтобы копирование шло в много шагов
+        for (int i = 0; i < 20; i++) {
+            Database.writer().execute(conn -> {
+                for (int j = 0; j < 500; j++) {
+                    deposit(conn, 1, 100);
+                }
+                return null;
+            });
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Database.close();
+        try (var files = Files.list(dir)) {
+            for (Path f : files.toList()) {
+                Files.delete(f);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void testBackupCopiesDatabaseInSteps() throws Exception {
+        // Тест пошагового копирования с отчетом о прогрессе
+        List<Integer> remaining = new ArrayList<>();
+        Path target = dir.resolve("copy.db");
+
+        BackupReport report = BackupService.forDatabase().backup(target,
+                new BackupService.Options(8, Duration.ZERO), (left, total) -> remaining.add(left));
+
+        assertTrue(report.steps() > 1);
+        assertEquals(report.steps(), remaining.size());
+        assertEquals(0, remaining.get(remaining.size() - 1));
+        assertEquals(Files.size(target), report.bytes());
+        assertFalse(Files.exists(dir.resolve("copy.db.tmp")));
+        try (Connection copy = DriverManager.getConnection("jdbc:sqlite:" + target);
+             Connection live = Database.getReadConnection()) {
+            assertEquals("ok", scalarString(copy, "PRAGMA integrity_check"));
+            assertEquals(scalar(live, "SELECT COUNT(*) FROM transactions"), scalar(copy, "SELECT COUNT(*) FROM transactions"));
+        }
+    }
+
+    @Test
+    void testBackupConsistentWhileWriting() throws Exception {
+        // Тест резервной копии во время непрерывных депозитов: копия согласована, записи не блокируются
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong written = new AtomicLong();
+        Thread depositor = new Thread(() -> {
+            while (!stop.get()) {
+                Database.writer().execute(conn -> deposit(conn, 2, 1));
+                written.incrementAndGet();
+            }
+        });
+        depositor.start();
+        BackupReport report;
+        long before;
+        try {
+            Thread.sleep(20);
+            before = written.get();
+            report = BackupService.forDatabase().backup(dir.resolve("live.db"),
+                    new BackupService.Options(1, Duration.ofMillis(1)), BackupService.Listener.NONE);
+        } finally {
+            stop.set(true);
+            depositor.join();
+        }
+
+        assertTrue(written.get() > before, "Депозиты шли во время копирования");
+        try (Connection copy = DriverManager.getConnection("jdbc:sqlite:" + report.target())) {
+            LedgerBalances balances = LedgerBalances.replayAll(copy);
+            try (Statement st = copy.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT id, balance_cents FROM accounts")) {
+                while (rs.next()) {
+                    assertEquals(Money.ofCents(rs.getLong(2)), balances.balance(rs.getInt(1)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testVacuumIntoReplacesTarget() throws Exception {
+        // Тест VACUUM INTO: существующий файл заменяется новой копией
+        Path target = dir.resolve("vacuum.db");
+        Files.writeString(target, "old");
+
+        BackupReport report = BackupService.forDatabase().vacuumInto(target);
+
+        assertEquals("vacuum-into", report.method());
+        try (Connection copy = DriverManager.getConnection("jdbc:sqlite:" + target);
+             Connection live = Database.getReadConnection()) {
+            assertEquals("ok", scalarString(copy, "PRAGMA integrity_check"));
+            assertEquals(scalar(live, "SELECT COUNT(*) FROM transactions"), scalar(copy, "SELECT COUNT(*) FROM transactions"));
+        }
+    }
+
+    @Test
+    void testBackupIncludesArchive() throws Exception {
+        // Тест копии с архивом: обе схемы копируются, архив лежит рядом под своим именем
+        Database.close();
+        Database.open(DatabaseConfig.tempFile().withArchiveAge(Duration.ofDays(36_500)));
+        Database.writer().execute(conn -> {
+            deposit(conn, 1, 100);
+            try (Statement st = conn.createStatement()) {
+                st.executeUpdate("UPDATE transactions SET created_at = '2000-01-01 00:00:00'");
+            }
+            return null;
+        });
+        // плановый запуск при открытии может удалить горячую копию сам, поэтому считаем архив, а не run()
+        new ArchiveJob(Database.writer(), Duration.ofDays(1), 100, Clock.systemUTC()).run();
+        try (Connection live = Database.getReadConnection()) {
+            assertEquals(1, scalar(live, "SELECT COUNT(*) FROM archive.transactions"));
+        }
+
+        for (String method : new String[]{"backup", "vacuum"}) {
+            Path target = dir.resolve(method + ".db");
+            BackupService service = BackupService.forDatabase();
+            BackupReport report = method.equals("backup") ? service.backup(target) : service.vacuumInto(target);
+
+            Path archive = dir.resolve(method + ".archive.db");
+            assertEquals(Files.size(target) + Files.size(archive), report.bytes());
+            try (Connection copy = DriverManager.getConnection("jdbc:sqlite:" + archive);
+                 Connection live = Database.getReadConnection()) {
+                assertEquals(scalar(live, "SELECT COUNT(*) FROM archive.transactions"),
+                        scalar(copy, "SELECT COUNT(*) FROM transactions"));
+            }
+        }
+    }
+
+    private static int deposit(Connection conn, int accountId, long cents) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO transactions(type, to_account_id, amount_cents) VALUES('DEPOSIT', ?, ?)")) {
+            ps.setInt(1, accountId);
+            ps.setLong(2, cents);
+            ps.executeUpdate();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE accounts SET balance_cents = balance_cents + ? WHERE id = ?")) {
+            ps.setLong(1, cents);
+            ps.setInt(2, accountId);
+            return ps.executeUpdate();
+        }
+    }
+
+    private static long scalar(Connection conn, String sql) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static String scalarString(Connection conn, String sql) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+}
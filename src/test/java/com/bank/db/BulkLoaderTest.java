@@ -0,0 +1,117 @@
+package com.bank.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkLoaderTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator(Migrations.ALL).migrate(conn);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void testLoadsRequestedVolume() throws SQLException {
+        // Тест объема: пользователи, счета и история; начальные балансы — в opening_cents
+        LoadReport report = new BulkLoader(BulkLoader.Spec.of(50, 2, 2_000)).load(conn);
+
+        assertEquals(50, count("users"));
+        assertEquals(100, count("accounts"));
+        assertEquals(2_000, count("transactions"));
+        assertEquals(2_000, report.transactions());
+        assertEquals(0, scalar("SELECT COUNT(*) FROM accounts WHERE opening_cents <= 0"));
+        assertTrue(report.rowsPerSecond() > 0);
+    }
+
+    @Test
+    void testBalancesMatchLedger() throws SQLException {
+        // Тест согласованности: баланс каждого счета равен начальному плюс сумма журнала и не отрицателен
+        new BulkLoader(BulkLoader.Spec.of(20, 3, 5_000)).load(conn);
+
+        assertEquals(0, scalar("""
+                SELECT COUNT(*) FROM accounts a
+                WHERE a.balance_cents < 0 OR a.balance_cents <> a.opening_cents
+                  + (SELECT COALESCE(SUM(amount_cents), 0) FROM transactions WHERE to_account_id = a.id)
+                  - (SELECT COALESCE(SUM(amount_cents), 0) FROM transactions WHERE from_account_id = a.id)
+                """));
+    }
+
+    @Test
+    void testSameSeedGivesSameData() throws SQLException {
+        // Тест детерминированности: одинаковый seed дает одинаковые данные
+        BulkLoader.Spec spec = BulkLoader.Spec.of(10, 2, 1_000).withSeed(7);
+        new BulkLoader(spec).load(conn);
+        long first = checksum(conn);
+
+        try (Connection other = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            new SchemaMigrator(Migrations.ALL).migrate(other);
+            new BulkLoader(spec).load(other);
+            assertEquals(first, checksum(other));
+        }
+    }
+
+    @Test
+    void testHotAccountsTakeMostTraffic() throws SQLException {
+        // Тест распределения: 10% горячих счетов получают основную часть операций
+        new BulkLoader(BulkLoader.Spec.of(100, 1, 10_000).withHotAccounts(0.1, 0.8)).load(conn);
+
+        long hot = scalar("SELECT COUNT(*) FROM transactions WHERE created_at > '2024-01-01 00:00:00' "
+                + "AND (from_account_id <= 10 OR (from_account_id IS NULL AND to_account_id <= 10))");
+        assertTrue(hot > 7_000, "Горячих операций: " + hot);
+    }
+
+    @Test
+    void testIndexesRestoredAfterLoad() throws SQLException {
+        // Тест, что индексы журнала пересоздаются после загрузки
+        new BulkLoader(BulkLoader.Spec.of(5, 1, 100)).load(conn);
+
+        assertEquals(4, scalar("SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND tbl_name = 'transactions' "
+                + "AND name LIKE 'idx_%'"));
+    }
+
+    @Test
+    void testInvalidSpecRejected() {
+        // Тест валидации параметров генератора
+        assertThrows(IllegalArgumentException.class, () -> BulkLoader.Spec.of(0, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> BulkLoader.Spec.of(1, 1, 10).withHotAccounts(0, 0.5));
+    }
+
+    private long count(String table) throws SQLException {
+        return scalar("SELECT COUNT(*) FROM " + table);
+    }
+
+    private long scalar(String sql) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static long checksum(Connection c) throws SQLException {
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("""
+                     SELECT (SELECT SUM(id * balance_cents) FROM accounts)
+                          + (SELECT SUM(id * amount_cents + COALESCE(from_account_id, 0) * 7 + COALESCE(to_account_id, 0) * 13)
+                             FROM transactions)
+                     """)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.bank.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointSchedulerTest {
+
+    private Path dir;
+    private Path file;
+    private ConnectionPool pool;
+    private final AtomicLong writes = new AtomicLong();
+    private CheckpointScheduler scheduler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("wal-checkpoint");
+        file = dir.resolve("test.db");
+        String url = "jdbc:sqlite:" + file;
+        ConnectionPool.ConnectionFactory factory = () -> {
+            Connection conn = SqliteProfile.BALANCED.toConfig().createConnection(url);
+            try (Statement st = conn.createStatement()) {
+                st.execute("PRAGMA wal_autocheckpoint = 0");
+            }
+            return conn;
+        };
+        pool = new ConnectionPool(factory, new PoolConfig(2, 1, Duration.ofSeconds(5), Duration.ofMinutes(1), Duration.ofSeconds(30), 16));
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE t (v BLOB NOT NULL)");
+        }
+        scheduler = new CheckpointScheduler(factory, file, writes::get,
+                new CheckpointScheduler.Policy(Duration.ofMillis(10), 128 << 10, 1 << 20));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        scheduler.close();
+        pool.close();
+        try (var files = Files.list(dir)) {
+            for (Path f : files.toList()) {
+                Files.delete(f);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void testPassiveCheckpointWhenIdle() throws SQLException {
+        // Тест PASSIVE-чекпоинта в простое после записей
+        write(10);
+        assertNull(scheduler.tick(), "Во время записи чекпоинт не нужен");
+
+        CheckpointScheduler.Result result = scheduler.tick();
+
+        assertEquals(CheckpointScheduler.Mode.PASSIVE, result.mode());
+        assertEquals(result.walFrames(), result.checkpointedFrames());
+        assertNull(scheduler.tick(), "Без новых записей повторять нечего");
+        CheckpointStats stats = scheduler.stats();
+        assertEquals(1, stats.passive());
+        assertEquals(result.checkpointedFrames(), stats.framesCheckpointed());
+    }
+
+    @Test
+    void testRestartWhenWalGrowsUnderLoad() throws SQLException {
+        // Тест эскалации до RESTART при росте WAL без простоя
+        write(30);
+
+        assertEquals(CheckpointScheduler.Mode.RESTART, scheduler.tick().mode());
+
+        write(1);
+        // файл WAL не уменьшился, но и не вырос: повторный RESTART не нужен
+        assertNull(scheduler.tick());
+        assertEquals(1, scheduler.stats().restart());
+    }
+
+    @Test
+    void testTruncateShrinksWal() throws SQLException {
+        // Тест TRUNCATE при превышении верхнего порога
+        write(400);
+        assertTrue(scheduler.stats().walBytes() >= 1 << 20);
+
+        assertEquals(CheckpointScheduler.Mode.TRUNCATE, scheduler.tick().mode());
+
+        CheckpointStats stats = scheduler.stats();
+        assertEquals(0, stats.walBytes());
+        assertEquals(1, stats.truncate());
+        assertTrue(stats.maxDurationNanos() > 0);
+    }
+
+    @Test
+    void testBusyTruncateBacksOff() throws Exception {
+        // Тест отступа после занятого TRUNCATE: пока читатель держит снимок, писатели не ждут
+        write(400);
+        try (Connection reader = SqliteProfile.BALANCED.openReadOnly("jdbc:sqlite:" + file);
+             Statement st = reader.createStatement()) {
+            reader.setAutoCommit(false);
+            st.executeQuery("SELECT COUNT(*) FROM t").close();
+            write(1);
+
+            CheckpointScheduler.Result busy = scheduler.tick();
+            assertEquals(CheckpointScheduler.Mode.TRUNCATE, busy.mode());
+            assertTrue(busy.busy());
+            assertTrue(busy.nanos() < Duration.ofSeconds(1).toNanos(), "Ожидание читателей ограничено");
+
+            write(1);
+            assertEquals(CheckpointScheduler.Mode.PASSIVE, scheduler.tick().mode(), "Вместо TRUNCATE — PASSIVE");
+            reader.rollback();
+        }
+
+        assertNull(scheduler.tick(), "Отступ еще не истек");
+        assertEquals(CheckpointScheduler.Mode.TRUNCATE, scheduler.tick().mode());
+        assertEquals(0, scheduler.stats().walBytes());
+    }
+
+    @Test
+    void testBackgroundTimerCheckpoints() throws Exception {
+        // Тест фонового планировщика
+        write(10);
+        scheduler.start();
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (scheduler.stats().checkpoints() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, scheduler.stats().passive());
+    }
+
+    @Test
+    void testCheckpointNeedsNoPoolSlot() throws SQLException {
+        // Тест собственного соединения: чекпоинт идет, даже когда все слоты пула заняты
+        write(10);
+        try (Connection first = pool.getConnection(); Connection second = pool.getConnection()) {
+            CheckpointScheduler.Result result = scheduler.checkpoint(CheckpointScheduler.Mode.PASSIVE);
+
+            assertEquals(result.walFrames(), result.checkpointedFrames());
+            assertEquals(2, pool.stats().active());
+        }
+    }
+
+    @Test
+    void testDatabaseRunsSchedulerForFiles() throws Exception {
+        // Тест подключения планировщика к файловой базе
+        Database.close();
+        Database.open(DatabaseConfig.tempFile());
+        try {
+            try (Connection conn = Database.getConnection(); Statement st = conn.createStatement();
+                 var rs = st.executeQuery("PRAGMA wal_autocheckpoint")) {
+                assertEquals(CheckpointScheduler.AUTOCHECKPOINT_BACKSTOP_PAGES, rs.getInt(1));
+            }
+            assertNotNull(Database.checkpointStats());
+        } finally {
+            Database.close();
+        }
+    }
+
+    // каждая запись — отдельная транзакция, в WAL это 2-3 страницы
+    private void write(int rows) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO t(v) VALUES(randomblob(3000))")) {
+            for (int i = 0; i < rows; i++) {
+                ps.executeUpdate();
+                writes.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.bank.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool(() -> DriverManager.getConnection("jdbc:sqlite::memory:"),
+                new PoolConfig(2, 1, Duration.ofMillis(200), Duration.ofMinutes(1), Duration.ofSeconds(30), 2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testConnectionIsReused() throws SQLException {
+        // Тест, что закрытое соединение возвращается в пул и выдается повторно
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+
+        PoolStats stats = pool.stats();
+        assertEquals(1, stats.created());
+        assertEquals(2, stats.borrowed());
+        assertEquals(0, stats.active());
+        assertEquals(1, stats.idle());
+    }
+
+    @Test
+    void testClosedLeaseIsUnusable() throws SQLException {
+        // Тест, что после возврата прокси больше нельзя использовать
+        Connection conn = pool.getConnection();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+        conn.close(); // повторный close безопасен
+        assertEquals(0, pool.stats().active());
+    }
+
+    @Test
+    void testOpenTransactionIsRolledBackOnReturn() throws SQLException {
+        // Тест, что незавершенная транзакция откатывается при возврате
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertTrue(conn.getAutoCommit());
+        }
+    }
+
+    @Test
+    void testBorrowTimesOutWhenExhausted() throws SQLException {
+        // Тест ограничения размера пула
+        try (Connection a = pool.getConnection(); Connection b = pool.getConnection()) {
+            assertNotNull(a);
+            assertNotNull(b);
+            assertThrows(SQLException.class, pool::getConnection);
+        }
+        assertEquals(1, pool.stats().timeouts());
+    }
+
+    @Test
+    void testWarmUpFillsMinIdle() throws SQLException {
+        // Тест прогрева пула до minIdle
+        pool.warmUp();
+
+        assertEquals(1, pool.stats().idle());
+        assertEquals(1, pool.stats().created());
+    }
+
+    @Test
+    void testPreparedStatementIsCachedAcrossLeases() throws SQLException {
+        // Тест, что повторная подготовка того же SQL берется из кэша
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement ps = conn.prepareStatement("SELECT ?")) {
+                ps.setInt(1, i);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(i, rs.getInt(1));
+                }
+            }
+        }
+
+        PoolStats stats = pool.stats();
+        assertEquals(1, stats.statementMisses());
+        assertEquals(2, stats.statementHits());
+    }
+
+    @Test
+    void testCachedStatementSettingsAreReset() throws SQLException {
+        // Тест, что настройки statement (fetch size, max rows) не переходят к следующему вызывающему
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT 1 UNION ALL SELECT 2")) {
+            ps.setFetchSize(500);
+            ps.setMaxRows(1);
+        }
+
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT 1 UNION ALL SELECT 2")) {
+            assertEquals(1, pool.stats().statementHits());
+            assertEquals(0, ps.getMaxRows());
+            assertNotEquals(500, ps.getFetchSize());
+            int rows = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows++;
+                }
+            }
+            assertEquals(2, rows);
+        }
+    }
+
+    @Test
+    void testStatementCacheEvictsLeastRecentlyUsed() throws SQLException {
+        // Тест LRU-вытеснения при переполнении кэша (емкость 2)
+        try (Connection conn = pool.getConnection()) {
+            for (String sql : new String[]{"SELECT 1", "SELECT 2", "SELECT 1", "SELECT 3", "SELECT 1"}) {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    assertTrue(ps.execute());
+                }
+            }
+        }
+
+        PoolStats stats = pool.stats();
+        assertEquals(1, stats.statementEvictions());
+        assertEquals(2, stats.statementHits());
+    }
+
+    @Test
+    void testNestedUseOfSameSqlGetsSeparateStatement() throws SQLException {
+        // Тест, что занятый кэшированный statement не выдается второй раз
+        try (Connection conn = pool.getConnection();
+             PreparedStatement outer = conn.prepareStatement("SELECT ?");
+             PreparedStatement inner = conn.prepareStatement("SELECT ?")) {
+            outer.setInt(1, 1);
+            inner.setInt(1, 2);
+            try (ResultSet a = outer.executeQuery(); ResultSet b = inner.executeQuery()) {
+                assertTrue(a.next());
+                assertTrue(b.next());
+                assertEquals(1, a.getInt(1));
+                assertEquals(2, b.getInt(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.bank.db;
+
+import com.bank.dao.UserDao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseTest {
+
+    @BeforeEach
+    void setUp() {
+        Database.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // следующие тесты получат свежую базу из системных свойств
+        Database.close();
+    }
+
+    @Test
+    void testInMemoryDatabaseIsSeeded() {
+        // Тест in-memory базы: схема и сиды разворачиваются при open
+        Database.open(DatabaseConfig.inMemory("database-test"));
+
+        assertTrue(Database.config().inMemory());
+        assertTrue(new UserDao().findByCredentials("admin", "admin").isPresent());
+    }
+
+    @Test
+    void testTempFileIsRemovedOnClose() {
+        // Тест временного файла: создается при open и удаляется при close
+        DatabaseConfig config = DatabaseConfig.tempFile();
+        Path file = config.file();
+        Database.open(config);
+
+        assertTrue(Files.exists(file));
+        assertTrue(Files.exists(BalanceSnapshot.pathFor(config).orElseThrow()), "Снимок балансов пишется при старте");
+        assertFalse(new UserDao().findAll().isEmpty());
+
+        Database.close();
+        assertFalse(Files.exists(file));
+        assertFalse(Files.exists(file.getParent()));
+    }
+
+    @Test
+    void testArchiveAttachedOnlyWhenConfigured() throws Exception {
+        // Тест архива: подключается только при заданном сроке архивации
+        DatabaseConfig config = DatabaseConfig.tempFile();
+        Database.open(config);
+        try (Connection conn = Database.getReadConnection()) {
+            assertFalse(Archive.isAttached(conn));
+        }
+        assertThrows(IllegalStateException.class, () -> ArchiveJob.forDatabase(Duration.ofDays(30)));
+        Database.close();
+        assertFalse(Files.exists(Paths.get(Archive.locationFor(config))));
+
+        Database.open(DatabaseConfig.inMemory("database-test-archive").withArchiveAge(Duration.ofDays(36_500)));
+        try (Connection conn = Database.getReadConnection()) {
+            assertTrue(Archive.isAttached(conn));
+        }
+    }
+
+    @Test
+    void testDoubleOpenRejected() {
+        // Тест явного жизненного цикла: повторный open без close запрещен
+        Database.open(DatabaseConfig.inMemory("database-test-2"));
+
+        assertThrows(IllegalStateException.class, () -> Database.open(DatabaseConfig.inMemory("other")));
+    }
+
+    @Test
+    void testLazyOpenFromSystemProperties() {
+        // Тест ленивого открытия по системным свойствам
+        assertFalse(Database.isOpen());
+
+        new UserDao().findAll();
+
+        assertTrue(Database.isOpen());
+    }
+
+    @Test
+    void testOpenAsyncCompletesReadyFuture() {
+        // Тест фоновой инициализации: DAO дожидается готовности базы
+        CompletableFuture<Void> ready = Database.openAsync(DatabaseConfig.inMemory("database-test-async"));
+
+        assertTrue(new UserDao().findByCredentials("user", "pass").isPresent());
+        assertTrue(ready.isDone());
+        assertTrue(Database.isOpen());
+    }
+
+    @Test
+    void testReadyStartsDatabaseWhenNotOpen() {
+        // Тест, что ready() сам запускает открытие по системным свойствам
+        Database.ready().join();
+
+        assertTrue(Database.isOpen());
+        assertTrue(Database.ready().isDone());
+    }
+}
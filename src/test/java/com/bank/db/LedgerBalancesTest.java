@@ -0,0 +1,143 @@
+package com.bank.db;
+
+import com.bank.model.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerBalancesTest {
+
+    private Path dir;
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("ledger-balances");
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator(Migrations.ALL).migrate(conn);
+        new BulkLoader(BulkLoader.Spec.of(20, 2, 3_000)).load(conn);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        conn.close();
+        try (var files = Files.list(dir)) {
+            for (Path f : files.toList()) {
+                Files.delete(f);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void testFullReplayMatchesAccounts() throws SQLException {
+        // Тест полного проигрывания журнала: балансы совпадают с таблицей счетов
+        assertMatchesAccounts(LedgerBalances.replayAll(conn));
+    }
+
+    @Test
+    void testSnapshotPlusTailMatchesFullReplay() throws SQLException {
+        // Тест старта со снимка: проигрывается только хвост и откаты старых записей
+        BalanceSnapshot snapshot = LedgerBalances.replayAll(conn).snapshot();
+        long deposit;
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT MIN(id) FROM transactions WHERE type = 'DEPOSIT'")) {
+            deposit = rs.getLong(1);
+        }
+        try (Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO transactions(type, from_account_id, to_account_id, amount_cents) VALUES('TRANSFER', 1, 2, 150)");
+            st.execute("UPDATE accounts SET balance_cents = balance_cents - 150 WHERE id = 1");
+            st.execute("UPDATE accounts SET balance_cents = balance_cents + 150 WHERE id = 2");
+            // откат записи, попавшей в снимок
+            st.execute("UPDATE transactions SET reversed = 1 WHERE id = " + deposit);
+            st.execute("UPDATE accounts SET balance_cents = balance_cents - "
+                    + "(SELECT amount_cents FROM transactions WHERE id = " + deposit + ") "
+                    + "WHERE id = (SELECT to_account_id FROM transactions WHERE id = " + deposit + ")");
+        }
+
+        LedgerBalances restored = LedgerBalances.restore(conn, snapshot);
+
+        assertMatchesAccounts(restored);
+        assertEquals(snapshot.lastTransactionId() + 1, restored.lastTransactionId());
+        assertArrayEquals(new long[]{deposit}, restored.snapshot().reversedIds());
+    }
+
+    @Test
+    void testSnapshotFileRoundTrip() {
+        // Тест записи и чтения файла снимка
+        Path file = dir.resolve("bank.db.balances");
+        BalanceSnapshot snapshot = new BalanceSnapshot(42, 3, new long[]{0, 100, 0, -5}, new long[]{3, 7});
+        snapshot.write(file);
+
+        BalanceSnapshot read = BalanceSnapshot.read(file).orElseThrow();
+        assertEquals(42, read.lastTransactionId());
+        assertEquals(3, read.lastAccountId());
+        assertArrayEquals(snapshot.balances(), read.balances());
+        assertArrayEquals(snapshot.reversedIds(), read.reversedIds());
+        assertFalse(Files.exists(dir.resolve("bank.db.balances.tmp")));
+    }
+
+    @Test
+    void testCorruptSnapshotIgnored() throws Exception {
+        // Тест, что поврежденный снимок не используется
+        Path file = dir.resolve("bank.db.balances");
+        new BalanceSnapshot(42, 1, new long[]{0, 100}, new long[0]).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 1;
+        Files.write(file, bytes);
+
+        assertTrue(BalanceSnapshot.read(file).isEmpty());
+        assertTrue(BalanceSnapshot.read(dir.resolve("missing")).isEmpty());
+    }
+
+    @Test
+    void testOpenWritesSnapshotAndReusesIt() throws SQLException {
+        // Тест открытия: первый запуск пишет снимок, второй стартует с него
+        Path file = dir.resolve("bank.db.balances");
+        LedgerBalances first = LedgerBalances.open(conn, file);
+        assertTrue(Files.exists(file));
+
+        LedgerBalances second = LedgerBalances.open(conn, file);
+        assertEquals(first.lastTransactionId(), second.lastTransactionId());
+        assertMatchesAccounts(second);
+    }
+
+    @Test
+    void testSeededDatabaseIsDerivableFromLedger() throws SQLException {
+        // Тест сидов: начальные балансы лежат на счетах, а не синтетическими записями в журнале
+        Database.close();
+        Database.open(DatabaseConfig.inMemory("ledger-balances-seed"));
+        try (Connection read = Database.getReadConnection()) {
+            LedgerBalances balances = LedgerBalances.replayAll(read);
+            assertEquals(0, balances.lastTransactionId());
+            assertTrue(balances.mismatches(read).isEmpty());
+            try (Statement st = read.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT id, balance_cents FROM accounts")) {
+                while (rs.next()) {
+                    assertEquals(Money.ofCents(rs.getLong(2)), balances.balance(rs.getInt(1)));
+                }
+            }
+        } finally {
+            Database.close();
+        }
+    }
+
+    private void assertMatchesAccounts(LedgerBalances balances) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id, balance_cents FROM accounts")) {
+            while (rs.next()) {
+                assertEquals(Money.ofCents(rs.getLong(2)), balances.balance(rs.getInt(1)), "Счет " + rs.getInt(1));
+            }
+        }
+    }
+}
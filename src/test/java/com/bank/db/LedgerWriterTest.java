@@ -0,0 +1,181 @@
+package com.bank.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerWriterTest {
+
+    private Path dir;
+    private ConnectionPool pool;
+    private LedgerWriter writer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("ledger-writer");
+        String url = "jdbc:sqlite:" + dir.resolve("test.db");
+        pool = new ConnectionPool(() -> SqliteProfile.BALANCED.toConfig().createConnection(url),
+                new PoolConfig(2, 0, Duration.ofSeconds(5), Duration.ofMinutes(1), Duration.ofSeconds(30), 16));
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE t (v INTEGER NOT NULL)");
+        }
+        writer = new LedgerWriter(pool::getConnection, 64);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        writer.close();
+        pool.close();
+        try (var files = Files.list(dir)) {
+            for (Path f : files.toList()) {
+                Files.delete(f);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void testExecuteReturnsCommandResult() {
+        // Тест синхронного выполнения команды
+        int inserted = writer.execute(conn -> insert(conn, 7));
+
+        assertEquals(1, inserted);
+        assertEquals(1, count());
+    }
+
+    @Test
+    void testQueuedCommandsShareOneCommit() throws Exception {
+        // Тест группового коммита: пока писатель занят, команды копятся и уходят одним пакетом
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CompletableFuture<Object> gate = writer.submit(conn -> {
+            started.countDown();
+            awaitQuietly(blocker);
+            return null;
+        });
+        started.await();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int value = i;
+            futures.add(writer.submit(conn -> insert(conn, value)));
+        }
+        blocker.countDown();
+        gate.join();
+        futures.forEach(CompletableFuture::join);
+
+        assertEquals(20, count());
+        assertEquals(20, writer.stats().largestBatch());
+        assertEquals(2, writer.stats().batches());
+    }
+
+    @Test
+    void testFailingCommandOnlyRollsBackItself() throws Exception {
+        // Тест изоляции ошибки: откатывается только своя точка сохранения
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        CompletableFuture<Object> gate = writer.submit(conn -> {
+            started.countDown();
+            awaitQuietly(blocker);
+            return null;
+        });
+        started.await();
+        CompletableFuture<Integer> ok1 = writer.submit(conn -> insert(conn, 1));
+        CompletableFuture<Integer> bad = writer.submit(conn -> {
+            insert(conn, 2);
+            throw new IllegalArgumentException("Недостаточно средств");
+        });
+        CompletableFuture<Integer> ok2 = writer.submit(conn -> insert(conn, 3));
+        blocker.countDown();
+        gate.join();
+
+        assertEquals(1, ok1.join());
+        assertEquals(1, ok2.join());
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> writer.execute(conn -> {
+                    throw new IllegalArgumentException("Недостаточно средств");
+                }));
+        assertEquals("Недостаточно средств", error.getMessage());
+        assertTrue(bad.isCompletedExceptionally());
+        assertEquals(2, count());
+    }
+
+    @Test
+    void testErrorInCommandDoesNotStopWriter() {
+        // Тест ошибки уровня Error: падает только своя команда, писатель продолжает работу
+        CompletableFuture<Integer> broken = writer.submit(conn -> {
+            insert(conn, 1);
+            throw new StackOverflowError();
+        });
+
+        assertThrows(OutOfMemoryError.class, () -> writer.execute(conn -> {
+            throw new OutOfMemoryError("тест");
+        }));
+        int inserted = writer.execute(conn -> insert(conn, 2));
+        assertEquals(1, inserted);
+        assertTrue(broken.isCompletedExceptionally());
+        assertEquals(1, count());
+        assertEquals(2, writer.stats().failed());
+    }
+
+    @Test
+    void testCloseDrainsQueueThenRejects() throws Exception {
+        // Тест закрытия: очередь дописывается, новые команды после close отклоняются
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        writer.submit(conn -> {
+            started.countDown();
+            awaitQuietly(blocker);
+            return null;
+        });
+        started.await();
+        CompletableFuture<Integer> queued = writer.submit(conn -> insert(conn, 1));
+        Thread closer = new Thread(writer::close);
+        closer.start();
+        blocker.countDown();
+        closer.join();
+
+        assertEquals(1, queued.join());
+        assertThrows(IllegalStateException.class, () -> writer.submit(conn -> insert(conn, 2)));
+        assertEquals(1, count());
+    }
+
+    private static int insert(Connection conn, int value) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO t(v) VALUES(?)")) {
+            ps.setInt(1, value);
+            return ps.executeUpdate();
+        }
+    }
+
+    private int count() {
+        try (Connection conn = pool.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM t")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.bank.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void testMigrateAppliesAllAndIsIdempotent() throws SQLException {
+        // Тест применения всех миграций и повторного запуска
+        SchemaMigrator migrator = new SchemaMigrator(Migrations.ALL);
+
+        assertEquals(Migrations.ALL.size(), migrator.migrate(conn));
+        assertEquals(migrator.latestVersion(), migrator.currentVersion(conn));
+        assertEquals(0, migrator.migrate(conn));
+    }
+
+    @Test
+    void testIndexesCreated() throws SQLException {
+        // Тест наличия вторичных индексов
+        new SchemaMigrator(Migrations.ALL).migrate(conn);
+
+        for (String index : List.of("idx_accounts_user_id", "idx_transactions_from",
+                "idx_transactions_to", "idx_transactions_created_at")) {
+            try (Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery(
+                         "SELECT 1 FROM sqlite_master WHERE type = 'index' AND name = '" + index + "'")) {
+                assertTrue(rs.next(), "Индекс не найден: " + index);
+            }
+        }
+    }
+
+    @Test
+    void testDecimalMoneyMigratedToCents() throws SQLException {
+        // Тест перехода с DECIMAL(12,2) на целые копейки с сохранением связей
+        new SchemaMigrator(Migrations.ALL.subList(0, 2)).migrate(conn);
+        try (Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO users(id, username, password, role) VALUES(1, 'u', 'p', 'USER')");
+            st.execute("INSERT INTO accounts(id, user_id, name, iban, balance) VALUES(1, 1, 'a', 'i', 1250.10)");
+            st.execute("INSERT INTO accounts(id, user_id, name, iban, balance) VALUES(2, 1, 'b', 'j', 0.29)");
+            st.execute("INSERT INTO transactions(type, from_account_id, to_account_id, amount) VALUES('TRANSFER', 1, 2, 19.99)");
+        }
+
+        assertEquals(1, new SchemaMigrator(Migrations.ALL.subList(0, 3)).migrate(conn));
+
+        try (Statement st = conn.createStatement()) {
+            try (ResultSet rs = st.executeQuery("SELECT balance_cents FROM accounts ORDER BY id")) {
+                assertTrue(rs.next());
+                assertEquals(125010, rs.getLong(1));
+                assertTrue(rs.next());
+                assertEquals(29, rs.getLong(1));
+            }
+            try (ResultSet rs = st.executeQuery("SELECT amount_cents, from_account_id, to_account_id FROM transactions")) {
+                assertTrue(rs.next());
+                assertEquals(1999, rs.getLong(1));
+                assertEquals(1, rs.getInt(2));
+                assertEquals(2, rs.getInt(3));
+            }
+            try (ResultSet rs = st.executeQuery("PRAGMA foreign_keys")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void testOpeningBalancesRecordedOnAccounts() throws SQLException {
+        // Тест миграции 4: разница между балансом и журналом сохраняется на счете, журнал не меняется
+        new SchemaMigrator(Migrations.ALL.subList(0, 3)).migrate(conn);
+        try (Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO users(id, username, password, role) VALUES(1, 'u', 'p', 'USER')");
+            st.execute("INSERT INTO accounts(id, user_id, name, iban, balance_cents) VALUES(1, 1, 'a', 'i', 10000)");
+            st.execute("INSERT INTO accounts(id, user_id, name, iban, balance_cents) VALUES(2, 1, 'b', 'j', 500)");
+            st.execute("INSERT INTO accounts(id, user_id, name, iban, balance_cents) VALUES(3, 1, 'c', 'k', 0)");
+            // счет 2 получил 2000 переводом, но его баланс меньше: начальный остаток отрицательный
+            st.execute("INSERT INTO transactions(type, from_account_id, to_account_id, amount_cents) VALUES('TRANSFER', 3, 2, 2000)");
+        }
+
+        new SchemaMigrator(Migrations.ALL).migrate(conn);
+
+        try (Statement st = conn.createStatement();
+             ResultSet count = st.executeQuery("SELECT COUNT(*) FROM transactions")) {
+            assertEquals(1, count.getInt(1));
+        }
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("""
+                     SELECT a.id, a.balance_cents, a.opening_cents
+                          + COALESCE((SELECT SUM(amount_cents) FROM transactions WHERE to_account_id = a.id AND reversed = 0), 0)
+                          - COALESCE((SELECT SUM(amount_cents) FROM transactions WHERE from_account_id = a.id AND reversed = 0), 0)
+                     FROM accounts a ORDER BY a.id
+                     """)) {
+            while (rs.next()) {
+                assertEquals(rs.getLong(2), rs.getLong(3), "Счет " + rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void testFailedMigrationRollsBack() throws SQLException {
+        // Тест, что ошибка в миграции откатывает весь пакет
+        SchemaMigrator migrator = new SchemaMigrator(List.of(
+                new Migration(1, "ok", "CREATE TABLE a (id INTEGER)"),
+                new Migration(2, "broken", "CREATE TABLE b (")));
+
+        assertThrows(SQLException.class, () -> migrator.migrate(conn));
+        assertEquals(0, migrator.currentVersion(conn));
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT 1 FROM sqlite_master WHERE name = 'a'")) {
+            assertFalse(rs.next());
+        }
+    }
+
+    @Test
+    void testOutOfOrderMigrationsRejected() {
+        // Тест проверки порядка версий
+        assertThrows(IllegalArgumentException.class, () -> new SchemaMigrator(List.of(
+                new Migration(2, "b"), new Migration(1, "a"))));
+    }
+}
@@ -0,0 +1,85 @@
+package com.bank.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqliteProfileTest {
+
+    private Path dir;
+    private String url;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("sqlite-profile");
+        url = "jdbc:sqlite:" + dir.resolve("test.db");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (var files = Files.list(dir)) {
+            for (Path f : files.toList()) {
+                Files.delete(f);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void testWriteConnectionUsesWalAndForeignKeys() throws SQLException {
+        // Тест применения профиля к соединению на запись
+        try (Connection conn = SqliteProfile.DURABLE.toConfig().createConnection(url)) {
+            assertEquals("wal", pragma(conn, "journal_mode"));
+            assertEquals("1", pragma(conn, "foreign_keys"));
+            assertEquals("2", pragma(conn, "synchronous")); // FULL
+        }
+    }
+
+    @Test
+    void testReadOnlyConnectionRejectsWrites() throws SQLException {
+        // Тест, что соединение из пула чтения не может писать
+        try (Connection writer = SqliteProfile.BALANCED.toConfig().createConnection(url);
+             Statement st = writer.createStatement()) {
+            st.execute("CREATE TABLE t (v INTEGER)");
+            st.execute("INSERT INTO t VALUES (1)");
+        }
+
+        try (Connection reader = SqliteProfile.BALANCED.openReadOnly(url)) {
+            assertEquals("1", pragma(reader, "query_only"));
+            try (Statement st = reader.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM t")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+            assertThrows(SQLException.class, () -> {
+                try (Statement st = reader.createStatement()) {
+                    st.execute("INSERT INTO t VALUES (2)");
+                }
+            });
+        }
+    }
+
+    @Test
+    void testFromKey() {
+        // Тест выбора профиля по имени
+        assertEquals(SqliteProfile.BULK_LOAD, SqliteProfile.fromKey("bulk-load"));
+        assertEquals(SqliteProfile.DURABLE, SqliteProfile.fromKey(" Durable "));
+        assertThrows(IllegalArgumentException.class, () -> SqliteProfile.fromKey("fast"));
+    }
+
+    private static String pragma(Connection conn, String name) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("PRAGMA " + name)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+}
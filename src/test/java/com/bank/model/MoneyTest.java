@@ -0,0 +1,47 @@
+package com.bank.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testParseToCents() {
+        // Тест перевода суммы в копейки
+        assertEquals(125010, Money.of("1250.10").cents());
+        assertEquals(100, Money.of("1").cents());
+        assertEquals(-5, Money.of("-0.05").cents());
+        assertEquals(Money.of("10.5"), Money.of(new BigDecimal("10.50")));
+    }
+
+    @Test
+    void testFractionOfCentRejected() {
+        // Тест отказа от сумм точнее копейки
+        assertThrows(IllegalArgumentException.class, () -> Money.of("0.001"));
+        assertThrows(NumberFormatException.class, () -> Money.of("abc"));
+    }
+
+    @Test
+    void testArithmeticIsExact() {
+        // Тест точной арифметики без накопления погрешности
+        Money total = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.of("0.10"));
+        }
+
+        assertEquals(Money.of("1.00"), total);
+        assertEquals(Money.of("0.70"), total.minus(Money.of("0.30")));
+        assertTrue(Money.of("0.01").isLessThan(Money.of("0.02")));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+    }
+
+    @Test
+    void testToBigDecimalKeepsScale() {
+        // Тест преобразования для UI с двумя знаками
+        assertEquals(new BigDecimal("12.30"), Money.ofCents(1230).toBigDecimal());
+        assertEquals("0.05", Money.ofCents(5).toString());
+    }
+}
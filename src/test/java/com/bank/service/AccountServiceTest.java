@@ -3,13 +3,20 @@ package com.bank.service;
 import com.bank.dao.AccountDao;
 import com.bank.dao.TransactionDao;
 import com.bank.model.Account;
+import com.bank.model.Money;
 import com.bank.model.Role;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionType;
 import com.bank.model.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -62,19 +69,19 @@ class AccountServiceTest {
         assertFalse(accounts.isEmpty());
         
         Account account = accounts.get(0);
-        BigDecimal initialBalance = account.getBalance();
-        BigDecimal depositAmount = new BigDecimal("100.00");
+        Money initialBalance = account.getBalance();
+        Money depositAmount = Money.of("100.00");
         
         Account updatedAccount = accountService.deposit(account.getId(), depositAmount);
         
-        assertEquals(0, initialBalance.add(depositAmount).compareTo(updatedAccount.getBalance()));
+        assertEquals(0, initialBalance.plus(depositAmount).compareTo(updatedAccount.getBalance()));
         
         // Проверяем, что баланс действительно обновился в БД
         Account reloaded = accountService.getAccounts(testUser).stream()
                 .filter(a -> a.getId() == account.getId())
                 .findFirst()
                 .orElseThrow();
-        assertEquals(0, initialBalance.add(depositAmount).compareTo(reloaded.getBalance()));
+        assertEquals(0, initialBalance.plus(depositAmount).compareTo(reloaded.getBalance()));
     }
 
     @Test
@@ -86,7 +93,7 @@ class AccountServiceTest {
         Account account = accounts.get(0);
         
         assertThrows(IllegalArgumentException.class, () -> {
-            accountService.deposit(account.getId(), BigDecimal.ZERO);
+            accountService.deposit(account.getId(), Money.ZERO);
         });
     }
 
@@ -99,7 +106,7 @@ class AccountServiceTest {
         Account account = accounts.get(0);
         
         assertThrows(IllegalArgumentException.class, () -> {
-            accountService.deposit(account.getId(), new BigDecimal("-10.00"));
+            accountService.deposit(account.getId(), Money.of("-10.00"));
         });
     }
 
@@ -107,7 +114,7 @@ class AccountServiceTest {
     void testDepositNonExistentAccount() {
         // Тест пополнения несуществующего счета
         assertThrows(IllegalArgumentException.class, () -> {
-            accountService.deposit(99999, new BigDecimal("100.00"));
+            accountService.deposit(99999, Money.of("100.00"));
         });
     }
 
@@ -118,8 +125,8 @@ class AccountServiceTest {
         assertFalse(accounts.isEmpty());
         
         Account account = accounts.get(0);
-        BigDecimal initialBalance = account.getBalance();
-        BigDecimal withdrawAmount = new BigDecimal("50.00");
+        Money initialBalance = account.getBalance();
+        Money withdrawAmount = Money.of("50.00");
         
         // Убеждаемся, что на счету достаточно средств
         if (initialBalance.compareTo(withdrawAmount) < 0) {
@@ -134,7 +141,56 @@ class AccountServiceTest {
         
         Account updatedAccount = accountService.withdraw(account.getId(), withdrawAmount);
         
-        assertEquals(0, initialBalance.subtract(withdrawAmount).compareTo(updatedAccount.getBalance()));
+        assertEquals(0, initialBalance.minus(withdrawAmount).compareTo(updatedAccount.getBalance()));
+    }
+
+    @Test
+    void testConcurrentDepositsAndWithdrawalsStayConsistent() throws Exception {
+        // Стресс-тест: параллельные пополнения и снятия не теряют обновлений и не уводят баланс в минус
+        AccountDao accountDao = new AccountDao();
+        TransactionDao transactionDao = new TransactionDao();
+        Account account = accountService.getAccounts(testUser).get(0);
+        Money opening = Money.of("10.00");
+        accountDao.updateBalance(account.getId(), opening);
+        int lastId = transactionDao.findAll().get(0).getId();
+
+        AtomicInteger deposits = new AtomicInteger();
+        AtomicInteger withdrawals = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                int offset = t;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        if ((offset + i) % 3 == 0) {
+                            accountService.deposit(account.getId(), Money.of("0.50"));
+                            deposits.incrementAndGet();
+                        } else {
+                            try {
+                                Account after = accountService.withdraw(account.getId(), Money.of("1.00"));
+                                assertFalse(after.getBalance().isNegative());
+                                withdrawals.incrementAndGet();
+                            } catch (IllegalArgumentException e) {
+                                assertEquals("Недостаточно средств", e.getMessage());
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Money expected = opening.plus(Money.ofCents(50L * deposits.get())).minus(Money.ofCents(100L * withdrawals.get()));
+        assertTrue(withdrawals.get() > 0);
+        assertEquals(expected, accountDao.findById(account.getId()).orElseThrow().getBalance());
+        List<Transaction> journal = transactionDao.findAll().stream().filter(tx -> tx.getId() > lastId).toList();
+        assertEquals(deposits.get(), journal.stream().filter(tx -> tx.getType() == TransactionType.DEPOSIT).count());
+        assertEquals(withdrawals.get(), journal.stream().filter(tx -> tx.getType() == TransactionType.WITHDRAW).count());
     }
 
     @Test
@@ -144,8 +200,8 @@ class AccountServiceTest {
         assertFalse(accounts.isEmpty());
         
         Account account = accounts.get(0);
-        BigDecimal balance = account.getBalance();
-        BigDecimal withdrawAmount = balance.add(new BigDecimal("1000.00"));
+        Money balance = account.getBalance();
+        Money withdrawAmount = balance.plus(Money.of("1000.00"));
         
         assertThrows(IllegalArgumentException.class, () -> {
             accountService.withdraw(account.getId(), withdrawAmount);
@@ -161,7 +217,7 @@ class AccountServiceTest {
         Account account = accounts.get(0);
         
         assertThrows(IllegalArgumentException.class, () -> {
-            accountService.withdraw(account.getId(), BigDecimal.ZERO);
+            accountService.withdraw(account.getId(), Money.ZERO);
         });
     }
 
@@ -177,9 +233,9 @@ class AccountServiceTest {
         Account fromAccount = userAccounts.get(0);
         Account toAccount = otherAccounts.get(0);
         
-        BigDecimal initialFromBalance = fromAccount.getBalance();
-        BigDecimal initialToBalance = toAccount.getBalance();
-        BigDecimal transferAmount = new BigDecimal("25.00");
+        Money initialFromBalance = fromAccount.getBalance();
+        Money initialToBalance = toAccount.getBalance();
+        Money transferAmount = Money.of("25.00");
         
         // Убеждаемся, что на счету достаточно средств
         if (initialFromBalance.compareTo(transferAmount) < 0) {
@@ -203,8 +259,8 @@ class AccountServiceTest {
                 .findFirst()
                 .orElseThrow();
         
-        assertEquals(0, initialFromBalance.subtract(transferAmount).compareTo(updatedFrom.getBalance()));
-        assertEquals(0, initialToBalance.add(transferAmount).compareTo(updatedTo.getBalance()));
+        assertEquals(0, initialFromBalance.minus(transferAmount).compareTo(updatedFrom.getBalance()));
+        assertEquals(0, initialToBalance.plus(transferAmount).compareTo(updatedTo.getBalance()));
     }
 
     @Test
@@ -216,7 +272,7 @@ class AccountServiceTest {
         Account account = accounts.get(0);
         
         assertThrows(IllegalArgumentException.class, () -> {
-            accountService.transfer(account.getId(), account.getId(), new BigDecimal("10.00"));
+            accountService.transfer(account.getId(), account.getId(), Money.of("10.00"));
         });
     }
 
@@ -230,7 +286,7 @@ class AccountServiceTest {
         assertFalse(otherAccounts.isEmpty());
         
         assertThrows(IllegalArgumentException.class, () -> {
-            accountService.transfer(userAccounts.get(0).getId(), otherAccounts.get(0).getId(), BigDecimal.ZERO);
+            accountService.transfer(userAccounts.get(0).getId(), otherAccounts.get(0).getId(), Money.ZERO);
         });
     }
 }
@@ -1,15 +1,21 @@
 package com.bank.service;
 
 import com.bank.model.Account;
+import com.bank.model.Money;
 import com.bank.model.Role;
 import com.bank.model.Transaction;
+import com.bank.model.TransactionPage;
 import com.bank.model.TransactionType;
 import com.bank.model.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -38,7 +44,7 @@ class TransactionServiceTest {
         transactions.forEach(transaction -> {
             assertNotNull(transaction.getType());
             assertNotNull(transaction.getAmount());
-            assertTrue(transaction.getAmount().compareTo(BigDecimal.ZERO) > 0);
+            assertTrue(transaction.getAmount().compareTo(Money.ZERO) > 0);
         });
     }
 
@@ -49,8 +55,8 @@ class TransactionServiceTest {
         assertFalse(accounts.isEmpty());
         
         Account account = accounts.get(0);
-        BigDecimal initialBalance = account.getBalance();
-        BigDecimal depositAmount = new BigDecimal("75.00");
+        Money initialBalance = account.getBalance();
+        Money depositAmount = Money.of("75.00");
         
         // Создаем транзакцию пополнения
         accountService.deposit(account.getId(), depositAmount);
@@ -91,8 +97,8 @@ class TransactionServiceTest {
         assertFalse(accounts.isEmpty());
         
         Account account = accounts.get(0);
-        BigDecimal initialBalance = account.getBalance();
-        BigDecimal withdrawAmount = new BigDecimal("30.00");
+        Money initialBalance = account.getBalance();
+        Money withdrawAmount = Money.of("30.00");
         
         // Убеждаемся, что на счету достаточно средств
         if (initialBalance.compareTo(withdrawAmount) < 0) {
@@ -141,9 +147,9 @@ class TransactionServiceTest {
         Account fromAccount = userAccounts.get(0);
         Account toAccount = otherAccounts.get(0);
         
-        BigDecimal initialFromBalance = fromAccount.getBalance();
-        BigDecimal initialToBalance = toAccount.getBalance();
-        BigDecimal transferAmount = new BigDecimal("20.00");
+        Money initialFromBalance = fromAccount.getBalance();
+        Money initialToBalance = toAccount.getBalance();
+        Money transferAmount = Money.of("20.00");
         
         // Убеждаемся, что на счету достаточно средств
         if (initialFromBalance.compareTo(transferAmount) < 0) {
@@ -203,7 +209,7 @@ class TransactionServiceTest {
         assertFalse(accounts.isEmpty());
         
         Account account = accounts.get(0);
-        BigDecimal depositAmount = new BigDecimal("50.00");
+        Money depositAmount = Money.of("50.00");
         
         // Создаем и сразу откатываем транзакцию
         accountService.deposit(account.getId(), depositAmount);
@@ -224,5 +230,79 @@ class TransactionServiceTest {
             transactionService.rollback(depositTx.getId());
         });
     }
-}
 
+    @Test
+    void testRollbackAllIsAllOrNothing() {
+        // Тест пакетного отката: при ошибке на одном id не откатывается ничего
+        Account account = accountService.getAccounts(testUser).get(0);
+        Money initialBalance = account.getBalance();
+        accountService.deposit(account.getId(), Money.of("5.00"));
+        int first = transactionService.list().get(0).getId();
+        accountService.deposit(account.getId(), Money.of("7.00"));
+        int second = transactionService.list().get(0).getId();
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.rollbackAll(List.of(first, second, 99999)));
+        assertEquals(initialBalance.plus(Money.of("12.00")), balanceOf(account));
+
+        transactionService.rollbackAll(List.of(first, second));
+        assertEquals(initialBalance, balanceOf(account));
+        assertThrows(IllegalStateException.class, () -> transactionService.rollbackAll(List.of(second)));
+    }
+
+    @Test
+    void testConcurrentRollbackAppliesOnce() throws Exception {
+        // Тест параллельного отката одной транзакции: баланс меняется ровно один раз
+        Account account = accountService.getAccounts(testUser).get(0);
+        Money initialBalance = account.getBalance();
+        accountService.deposit(account.getId(), Money.of("9.00"));
+        int id = transactionService.list().get(0).getId();
+
+        AtomicInteger applied = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    try {
+                        transactionService.rollback(id);
+                        applied.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        assertEquals("Уже откатано", e.getMessage());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(1, applied.get());
+        assertEquals(initialBalance, balanceOf(account));
+    }
+
+    private Money balanceOf(Account account) {
+        return accountService.getAccounts(testUser).stream()
+                .filter(a -> a.getId() == account.getId())
+                .findFirst()
+                .orElseThrow()
+                .getBalance();
+    }
+
+    @Test
+    void testPageCursorWalksWholeJournal() {
+        // Тест обхода всего журнала страницами
+        int total = transactionService.list().size();
+        int seen = 0;
+        TransactionPage page = transactionService.page(null, 2);
+        seen += page.items().size();
+        while (page.hasMore()) {
+            page = transactionService.page(page.nextBefore(), 2);
+            seen += page.items().size();
+        }
+
+        assertEquals(total, seen);
+        assertThrows(IllegalArgumentException.class, () -> transactionService.page(null, 0));
+    }
+}
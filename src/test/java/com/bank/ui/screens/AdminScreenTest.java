@@ -244,4 +244,18 @@ class AdminScreenTest {
             assertNotNull(columnName);
         }
     }
+
+    @Test
+    void testMoreTransactionsButton() {
+        // Тест кнопки догрузки журнала: активна только если есть следующая страница
+        adminScreen.load();
+        JButton more = findButton(adminScreen, "Показать еще");
+        JTable txTable = findTransactionsTable(adminScreen.getComponents());
+
+        assertNotNull(more);
+        assertTrue(txTable.getRowCount() <= AdminScreen.PAGE_SIZE);
+        if (txTable.getRowCount() < AdminScreen.PAGE_SIZE) {
+            assertFalse(more.isEnabled());
+        }
+    }
 }
@@ -1,7 +1,11 @@
 package com.bank.ui.screens;
 
+import com.bank.model.Account;
+import com.bank.model.DateRange;
+import com.bank.model.Money;
 import com.bank.model.User;
 import com.bank.service.AccountService;
+import com.bank.service.TransactionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -100,6 +104,39 @@ class UserScreenTest {
         return null;
     }
 
+    private JTable findTable(Container container) {
+        for (Component comp : container.getComponents()) {
+            if (comp instanceof JTable) {
+                return (JTable) comp;
+            }
+            if (comp instanceof Container) {
+                JTable found = findTable((Container) comp);
+                if (found != null) return found;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testHistoryFollowsSelection() {
+        // Тест истории операций: обновляется при выборе счета
+        Account first = accountService.getAccounts(testUser).get(0);
+        accountService.deposit(first.getId(), Money.of("1.00"));
+        userScreen.load(testUser);
+        JList<?> accountList = findList(userScreen);
+        JTable history = findTable(userScreen);
+        assertNotNull(history);
+
+        Account selected = (Account) accountList.getSelectedValue();
+        int expected = Math.min(UserScreen.HISTORY_SIZE,
+                new TransactionService().history(selected.getId(), DateRange.ALL, UserScreen.HISTORY_SIZE).size());
+        assertTrue(expected > 0);
+        assertEquals(expected, history.getRowCount());
+
+        accountList.clearSelection();
+        assertEquals(0, history.getRowCount());
+    }
+
     @Test
     void testUserScreenVisible() {
         // Тест видимости экрана пользователя